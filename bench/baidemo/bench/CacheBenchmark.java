@@ -0,0 +1,84 @@
+package Baidemo.bench;
+
+import Baidemo.CachingStudentRepository;
+import Baidemo.ColumnStudentRepository;
+import Baidemo.StudentOrder;
+import Baidemo.StudentRecord;
+import Baidemo.StudentRepository;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The clerk's workload of repeating the same few name searches and the same sorted-by-marks view,
+ * with an edit every editEvery operations (0 for none), on the scanning column backend with and
+ * without CachingStudentRepository in front. Each edit invalidates the whole cache, so the gain
+ * shrinks as edits become more frequent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class CacheBenchmark {
+
+    private static final StudentOrder BY_MARKS = StudentOrder.parse("marks DESC, name");
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"0", "10", "100"})
+    public int editEvery;
+
+    private StudentRepository repository;
+    private StudentRecord[] students;
+    private String[] names;
+    private int operation;
+
+    @Setup
+    public void setUp() {
+        students = StudentData.generate(size, 42);
+        StudentRepository backend = new ColumnStudentRepository();
+        backend.addAll(Arrays.asList(students));
+        repository = cached ? new CachingStudentRepository(backend) : backend;
+        names = new String[20];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = students[i].getName();
+        }
+    }
+
+    @Benchmark
+    public List<StudentRecord> repeatedNameSearch() {
+        editIfDue();
+        return repository.findByName(names[operation % names.length]);
+    }
+
+    @Benchmark
+    public List<StudentRecord> repeatedSortedView() {
+        editIfDue();
+        return repository.sortedBy(BY_MARKS);
+    }
+
+    private void editIfDue() {
+        operation++;
+        if (editEvery > 0 && operation % editEvery == 0) {
+            StudentRecord student = students[operation % students.length];
+            repository.update(student.getId(), student.getName(), student.getMarks());
+        }
+    }
+}
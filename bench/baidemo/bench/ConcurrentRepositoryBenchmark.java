@@ -0,0 +1,78 @@
+package Baidemo.bench;
+
+import Baidemo.ConcurrentStudentRepository;
+import Baidemo.IndexedStudentRepository;
+import Baidemo.StudentRecord;
+import Baidemo.StudentRepository;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Enrollment-day traffic from 8 threads: each operation is a lookup, or with probability writePercent
+ * an edit, against the striped ConcurrentStudentRepository and against the indexed backend behind one
+ * global lock. Throughput should grow with cores for the former and stay flat for the latter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Threads(8)
+public class ConcurrentRepositoryBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"10", "50"})
+    public int writePercent;
+
+    private StudentRepository striped;
+    private StudentRepository globalLock;
+    private String[] ids;
+
+    @Setup
+    public void setUp() {
+        StudentRecord[] students = StudentData.generate(size, 42);
+        striped = new ConcurrentStudentRepository();
+        striped.addAll(Arrays.asList(students));
+        globalLock = new IndexedStudentRepository();
+        globalLock.addAll(Arrays.asList(students));
+        ids = StudentData.ids(students);
+    }
+
+    @Benchmark
+    public Object striped() {
+        return operate(striped, false);
+    }
+
+    @Benchmark
+    public Object globalLock() {
+        return operate(globalLock, true);
+    }
+
+    private Object operate(StudentRepository repository, boolean locked) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String id = ids[random.nextInt(ids.length)];
+        boolean write = random.nextInt(100) < writePercent;
+        if (!locked) {
+            return write ? repository.update(id, "Updated Name", 7.5) : repository.get(id);
+        }
+        synchronized (repository) {
+            return write ? repository.update(id, "Updated Name", 7.5) : repository.get(id);
+        }
+    }
+}
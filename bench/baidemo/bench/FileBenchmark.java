@@ -0,0 +1,122 @@
+package Baidemo.bench;
+
+import Baidemo.StudentCsvLoader;
+import Baidemo.StudentRecord;
+import Baidemo.StudentSnapshot;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load and save paths: the original readLine/split loader, the parallel CSV loader, binary snapshots
+ * with and without compression, and the matching writers. Files are generated once per trial in a
+ * temporary directory, so reads are served from the page cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FileBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private StudentRecord[] roster;
+    private String[] ids;
+    private String[] names;
+    private double[] marks;
+    private Path directory;
+    private Path csvFile;
+    private Path snapshotFile;
+    private Path compressedFile;
+    private Path outputFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        roster = StudentData.generate(size, 42);
+        ids = StudentData.ids(roster);
+        names = StudentData.names(roster);
+        marks = StudentData.marks(roster);
+        directory = Files.createTempDirectory("student-bench");
+        csvFile = directory.resolve("students.txt");
+        snapshotFile = directory.resolve("students.bin");
+        compressedFile = directory.resolve("students.bin.z");
+        outputFile = directory.resolve("output");
+        StudentData.writeCsv(roster, csvFile);
+        StudentData.writeSnapshot(roster, snapshotFile, false);
+        StudentData.writeSnapshot(roster, compressedFile, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Path file : new Path[] {csvFile, snapshotFile, compressedFile, outputFile}) {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public List<StudentRecord> legacyLoadReadLineSplit() throws IOException {
+        List<StudentRecord> students = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile.toFile()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length == 3) {
+                    students.add(new StudentRecord(parts[0], parts[1], Double.parseDouble(parts[2])));
+                }
+            }
+        }
+        return students;
+    }
+
+    @Benchmark
+    public List<StudentRecord> loadCsv() throws IOException {
+        return StudentCsvLoader.load(csvFile, StudentRecord::new).getRecords();
+    }
+
+    @Benchmark
+    public List<StudentRecord> loadSnapshot() throws IOException {
+        return StudentSnapshot.read(snapshotFile, StudentRecord::new);
+    }
+
+    @Benchmark
+    public List<StudentRecord> loadCompressedSnapshot() throws IOException {
+        return StudentSnapshot.read(compressedFile, StudentRecord::new);
+    }
+
+    @Benchmark
+    public void saveCsv() throws IOException {
+        StudentSnapshot.writeCsv(outputFile, ids, names, marks, roster.length);
+    }
+
+    @Benchmark
+    public void saveSnapshot() throws IOException {
+        StudentSnapshot.write(outputFile, ids, names, marks, roster.length, false);
+    }
+
+    @Benchmark
+    public void saveCompressedSnapshot() throws IOException {
+        StudentSnapshot.write(outputFile, ids, names, marks, roster.length, true);
+    }
+}
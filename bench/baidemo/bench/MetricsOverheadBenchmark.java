@@ -0,0 +1,62 @@
+package Baidemo.bench;
+
+import Baidemo.IndexedStudentRepository;
+import Baidemo.MetricsStudentRepository;
+import Baidemo.StudentRecord;
+import Baidemo.StudentRepository;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of StudentMetrics on the cheapest operation there is, an ID lookup on the indexed backend:
+ * without the timing wrapper, through it with metrics on (two clock reads and a histogram update per
+ * lookup) and through it with -Dstudents.metrics=false, which should match the unwrapped lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MetricsOverheadBenchmark {
+
+    private StudentRepository plain;
+    private StudentRepository timed;
+    private String[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        StudentRecord[] students = StudentData.generate(100_000, 42);
+        plain = new IndexedStudentRepository();
+        plain.addAll(Arrays.asList(students));
+        timed = new MetricsStudentRepository(plain);
+        ids = StudentData.lookupIds(students, 1 << 16, 0, 7);
+    }
+
+    @Benchmark
+    public StudentRecord unwrapped() {
+        return plain.get(ids[next++ & (ids.length - 1)]);
+    }
+
+    @Benchmark
+    public StudentRecord metricsOn() {
+        return timed.get(ids[next++ & (ids.length - 1)]);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dstudents.metrics=false"})
+    public StudentRecord metricsOff() {
+        return timed.get(ids[next++ & (ids.length - 1)]);
+    }
+}
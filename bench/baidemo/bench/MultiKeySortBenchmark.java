@@ -0,0 +1,68 @@
+package Baidemo.bench;
+
+import Baidemo.SortEngine;
+import Baidemo.StudentOrder;
+import Baidemo.StudentRecord;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sorting by several keys ("rank DESC, marks DESC, name, id" by default): StudentOrder's packed radix
+ * keys against the same order as a comparator under TimSort and merge sort. Each invocation sorts a
+ * fresh copy of the shuffled roster.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class MultiKeySortBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"rank DESC, marks DESC, name, id", "name, marks"})
+    public String keys;
+
+    private StudentRecord[] roster;
+    private StudentOrder order;
+
+    @Setup
+    public void setUp() {
+        roster = StudentData.generate(size, 42);
+        order = StudentOrder.parse(keys);
+    }
+
+    @Benchmark
+    public StudentRecord[] packedKeys() {
+        StudentRecord[] students = Arrays.copyOf(roster, roster.length);
+        order.sort(students, 0, students.length);
+        return students;
+    }
+
+    @Benchmark
+    public StudentRecord[] timSortComparator() {
+        StudentRecord[] students = Arrays.copyOf(roster, roster.length);
+        SortEngine.sort(students, 0, students.length, SortEngine.Algorithm.TIM, order.comparator(), null);
+        return students;
+    }
+
+    @Benchmark
+    public StudentRecord[] mergeSortComparator() {
+        StudentRecord[] students = Arrays.copyOf(roster, roster.length);
+        SortEngine.sort(students, 0, students.length, SortEngine.Algorithm.MERGE, order.comparator(), null);
+        return students;
+    }
+}
@@ -0,0 +1,89 @@
+package Baidemo.bench;
+
+import Baidemo.IndexedStudentRepository;
+import Baidemo.NameIndexedStudentRepository;
+import Baidemo.StudentRecord;
+import Baidemo.StudentRepository;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Name searches with and without NameIndexedStudentRepository: the case-insensitive scan, and the
+ * index's exact, prefix (first four letters, 100 results) and typo-tolerant lookups (one letter
+ * dropped, up to two edits, 100 results). Queries cycle through names of stored students.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class NameSearchBenchmark {
+
+    private static final int QUERIES = 1 << 10;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private StudentRepository scanned;
+    private StudentRepository indexed;
+    private String[] names;
+    private String[] typos;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        StudentRecord[] students = StudentData.generate(size, 42);
+        scanned = new IndexedStudentRepository();
+        scanned.addAll(Arrays.asList(students));
+        indexed = new NameIndexedStudentRepository(scanned);
+        Random random = new Random(7);
+        names = new String[QUERIES];
+        typos = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String name = students[random.nextInt(students.length)].getName();
+            int dropped = 1 + random.nextInt(name.length() - 1);
+            names[i] = name;
+            typos[i] = name.substring(0, dropped) + name.substring(dropped + 1);
+        }
+    }
+
+    private int nextQuery() {
+        int query = next;
+        next = (next + 1) & (QUERIES - 1);
+        return query;
+    }
+
+    @Benchmark
+    public List<StudentRecord> scan() {
+        return scanned.findByName(names[nextQuery()]);
+    }
+
+    @Benchmark
+    public List<StudentRecord> exact() {
+        return indexed.findByName(names[nextQuery()]);
+    }
+
+    @Benchmark
+    public List<StudentRecord> prefix() {
+        return indexed.findByNamePrefix(names[nextQuery()].substring(0, 4), 100);
+    }
+
+    @Benchmark
+    public List<StudentRecord> fuzzy() {
+        return indexed.findByNameFuzzy(typos[nextQuery()], 2, 100);
+    }
+}
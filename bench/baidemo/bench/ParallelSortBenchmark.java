@@ -0,0 +1,70 @@
+package Baidemo.bench;
+
+import Baidemo.SortEngine;
+import Baidemo.StudentRecord;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scaling of SortEngine's parallel merge sort from 1 to 8 worker threads, each run on its own
+ * fork-join pool of that size. Compare threads=1 with MERGE in SortBenchmark for the cost of the
+ * task split itself. Each invocation sorts a fresh copy of the shuffled roster.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ParallelSortBenchmark {
+
+    private static final Comparator<StudentRecord> BY_MARKS = Comparator.comparingDouble(StudentRecord::getMarks);
+
+    @Param({"100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private StudentRecord[] roster;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        roster = StudentData.generate(size, 42);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public StudentRecord[] sortById() {
+        StudentRecord[] students = Arrays.copyOf(roster, roster.length);
+        SortEngine.parallelMergeSort(students, 0, students.length, StudentRecord.ID_ORDER, pool);
+        return students;
+    }
+
+    @Benchmark
+    public StudentRecord[] sortByMarks() {
+        StudentRecord[] students = Arrays.copyOf(roster, roster.length);
+        SortEngine.parallelMergeSort(students, 0, students.length, BY_MARKS, pool);
+        return students;
+    }
+}
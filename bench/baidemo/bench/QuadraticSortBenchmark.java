@@ -0,0 +1,105 @@
+package Baidemo.bench;
+
+import Baidemo.SortEngine;
+import Baidemo.StudentRecord;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The original menu sorts, kept as a baseline: bubbleSortById and selectionSortByMarks as they ran on
+ * the LinkedList (get/set per element), and bubbleSortById / selectionSortById as they run on an array.
+ * Sizes stop at 10K because the list versions are O(n^3) and the array versions O(n^2).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class QuadraticSortBenchmark {
+
+    private static final Comparator<StudentRecord> BY_MARKS = Comparator.comparingDouble(StudentRecord::getMarks);
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private StudentRecord[] roster;
+
+    @Setup
+    public void setUp() {
+        roster = StudentData.generate(size, 42);
+    }
+
+    @Benchmark
+    public LinkedList<StudentRecord> legacyListBubbleSortById() {
+        LinkedList<StudentRecord> students = new LinkedList<>(Arrays.asList(roster));
+        boolean swapped;
+        do {
+            swapped = false;
+            for (int i = 0; i < students.size() - 1; i++) {
+                StudentRecord current = students.get(i);
+                StudentRecord next = students.get(i + 1);
+                if (current.getId().compareTo(next.getId()) > 0) {
+                    students.set(i, next);
+                    students.set(i + 1, current);
+                    swapped = true;
+                }
+            }
+        } while (swapped);
+        return students;
+    }
+
+    @Benchmark
+    public LinkedList<StudentRecord> legacyListSelectionSortByMarks() {
+        LinkedList<StudentRecord> students = new LinkedList<>(Arrays.asList(roster));
+        int n = students.size();
+        for (int i = 0; i < n - 1; i++) {
+            int minIndex = i;
+            for (int j = i + 1; j < n; j++) {
+                if (students.get(j).getMarks() < students.get(minIndex).getMarks()) {
+                    minIndex = j;
+                }
+            }
+            if (minIndex != i) {
+                StudentRecord temp = students.get(i);
+                students.set(i, students.get(minIndex));
+                students.set(minIndex, temp);
+            }
+        }
+        return students;
+    }
+
+    @Benchmark
+    public StudentRecord[] arrayBubbleSortById() {
+        StudentRecord[] students = Arrays.copyOf(roster, roster.length);
+        SortEngine.bubbleSort(students, 0, students.length, StudentRecord.ID_ORDER);
+        return students;
+    }
+
+    @Benchmark
+    public StudentRecord[] arraySelectionSortById() {
+        StudentRecord[] students = Arrays.copyOf(roster, roster.length);
+        SortEngine.selectionSort(students, 0, students.length, StudentRecord.ID_ORDER);
+        return students;
+    }
+
+    @Benchmark
+    public StudentRecord[] arraySelectionSortByMarks() {
+        StudentRecord[] students = Arrays.copyOf(roster, roster.length);
+        SortEngine.selectionSort(students, 0, students.length, BY_MARKS);
+        return students;
+    }
+}
@@ -0,0 +1,78 @@
+package Baidemo.bench;
+
+import Baidemo.ColumnStudentRepository;
+import Baidemo.IndexedStudentRepository;
+import Baidemo.NameIndexedStudentRepository;
+import Baidemo.StudentQuery;
+import Baidemo.StudentRecord;
+import Baidemo.StudentRepository;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StudentQuery on a roster with ID, marks and name indexes against the same query on the column
+ * backend, which reports no indexes, so every query is a (parallel) scan. With indexes, prefix is
+ * answered from the name index, contains by walking the marks index from the top until 50 matches
+ * are found, and range from the ID index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class QueryBenchmark {
+
+    private static final StudentQuery PREFIX =
+            StudentQuery.parse("marks >= 7.5 AND name startsWith \"Nguyen Van\" ORDER BY marks DESC LIMIT 50");
+    private static final StudentQuery CONTAINS = StudentQuery.parse("name contains Linh ORDER BY marks DESC LIMIT 50");
+    private static final StudentQuery RANGE = StudentQuery.parse(
+            "id >= " + StudentData.FIRST_ID + " AND id < " + (StudentData.FIRST_ID + 1000) + " AND marks < 5");
+
+    @Param({"indexed", "column"})
+    public String backend;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private StudentRepository repository;
+
+    @Setup
+    public void setUp() {
+        StudentRecord[] students = StudentData.generate(size, 42);
+        if (backend.equals("indexed")) {
+            repository = new NameIndexedStudentRepository(new IndexedStudentRepository());
+        } else {
+            repository = new ColumnStudentRepository();
+        }
+        repository.addAll(Arrays.asList(students));
+    }
+
+    @Benchmark
+    public List<StudentRecord> prefix() {
+        return PREFIX.execute(repository).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<StudentRecord> contains() {
+        return CONTAINS.execute(repository).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<StudentRecord> range() {
+        return RANGE.execute(repository).collect(Collectors.toList());
+    }
+}
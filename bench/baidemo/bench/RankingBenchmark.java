@@ -0,0 +1,67 @@
+package Baidemo.bench;
+
+import Baidemo.StudentRecord;
+import Baidemo.StudentRepositories;
+import Baidemo.StudentRepository;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * "Top 100 students" answered three ways: by topByMarks (a bounded heap over a scan for array, a walk
+ * of the marks index for indexed and concurrent), by sorting a copy of the whole roster as the menus
+ * used to, and the median student by atMarksPercentile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class RankingBenchmark {
+
+    private static final int TOP = 100;
+
+    @Param({"array", "indexed", "concurrent"})
+    public String backend;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private StudentRepository repository;
+
+    @Setup
+    public void setUp() throws IOException {
+        repository = StudentRepositories.create(backend);
+        repository.addAll(Arrays.asList(StudentData.generate(size, 42)));
+    }
+
+    @Benchmark
+    public List<StudentRecord> topByMarks() {
+        return repository.topByMarks(TOP);
+    }
+
+    @Benchmark
+    public List<StudentRecord> fullSort() {
+        StudentRecord[] sorted = repository.all().toArray(new StudentRecord[0]);
+        Arrays.sort(sorted, StudentRecord.LEADERBOARD_ORDER);
+        return Arrays.asList(sorted).subList(0, Math.min(TOP, sorted.length));
+    }
+
+    @Benchmark
+    public StudentRecord median() {
+        return repository.atMarksPercentile(50);
+    }
+}
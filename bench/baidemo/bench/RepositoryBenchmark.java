@@ -0,0 +1,74 @@
+package Baidemo.bench;
+
+import Baidemo.StudentRecord;
+import Baidemo.StudentRepositories;
+import Baidemo.StudentRepository;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The StudentRepository operations the menus use, per backend: get, update, and a delete followed by
+ * re-adding the same student so the roster size stays fixed. IDs cycle as in SearchBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class RepositoryBenchmark {
+
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"list", "array", "indexed", "column"})
+    public String backend;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private StudentRepository repository;
+    private String[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        StudentRecord[] students = StudentData.generate(size, 42);
+        repository = StudentRepositories.create(backend);
+        repository.addAll(Arrays.asList(students));
+        ids = StudentData.lookupIds(students, LOOKUPS, 0.1, 7);
+    }
+
+    private String nextId() {
+        String id = ids[next];
+        next = (next + 1) & (LOOKUPS - 1);
+        return id;
+    }
+
+    @Benchmark
+    public StudentRecord get() {
+        return repository.get(nextId());
+    }
+
+    @Benchmark
+    public boolean update() {
+        return repository.update(nextId(), "Updated Name", 7.5);
+    }
+
+    @Benchmark
+    public boolean deleteAndAdd() {
+        StudentRecord student = repository.delete(nextId());
+        return student != null && repository.add(student);
+    }
+}
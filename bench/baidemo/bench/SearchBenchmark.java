@@ -0,0 +1,130 @@
+package Baidemo.bench;
+
+import Baidemo.SortEngine;
+import Baidemo.StudentColumnStore;
+import Baidemo.StudentRecord;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One ID lookup per invocation: the linear scans the menus started with, binary search over an array
+ * sorted by ID, and the hash, tree and column store indexes. Lookups cycle through random IDs,
+ * 10% of which are absent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SearchBenchmark {
+
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private StudentRecord[] array;
+    private LinkedList<StudentRecord> list;
+    private StudentRecord[] sortedById;
+    private Map<Long, StudentRecord> hashIndex;
+    private NavigableMap<Long, StudentRecord> treeIndex;
+    private StudentColumnStore columnStore;
+    private String[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        array = StudentData.generate(size, 42);
+        list = new LinkedList<>(Arrays.asList(array));
+        sortedById = Arrays.copyOf(array, array.length);
+        SortEngine.sort(sortedById, 0, sortedById.length, SortEngine.Algorithm.RADIX, StudentRecord.ID_ORDER, StudentRecord::getIdKey);
+        hashIndex = new HashMap<>();
+        treeIndex = new TreeMap<>();
+        columnStore = new StudentColumnStore();
+        for (StudentRecord student : array) {
+            hashIndex.put(student.getIdKey(), student);
+            treeIndex.put(student.getIdKey(), student);
+            columnStore.add(student.getIdKey(), student.getName(), student.getMarks());
+        }
+        ids = StudentData.lookupIds(array, LOOKUPS, 0.1, 7);
+    }
+
+    private String nextId() {
+        String id = ids[next];
+        next = (next + 1) & (LOOKUPS - 1);
+        return id;
+    }
+
+    @Benchmark
+    public StudentRecord linearSearchArray() {
+        String id = nextId();
+        for (StudentRecord student : array) {
+            if (student.getId().equals(id)) {
+                return student;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public StudentRecord linearSearchList() {
+        String id = nextId();
+        for (StudentRecord student : list) {
+            if (student.getId().equals(id)) {
+                return student;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public StudentRecord binarySearchById() {
+        String id = nextId();
+        long key = StudentRecord.parseIdKey(id);
+        int left = 0, right = sortedById.length - 1;
+        while (left <= right) {
+            int mid = (left + right) >>> 1;
+            int cmp = StudentRecord.compareIds(sortedById[mid].getIdKey(), sortedById[mid].getId(), key, id);
+            if (cmp == 0) {
+                return sortedById[mid];
+            } else if (cmp < 0) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public StudentRecord hashIndex() {
+        return hashIndex.get(StudentRecord.parseIdKey(nextId()));
+    }
+
+    @Benchmark
+    public StudentRecord treeIndex() {
+        return treeIndex.get(StudentRecord.parseIdKey(nextId()));
+    }
+
+    @Benchmark
+    public int columnStoreIndex() {
+        return columnStore.findRow(StudentRecord.parseIdKey(nextId()));
+    }
+}
@@ -0,0 +1,70 @@
+package Baidemo.bench;
+
+import Baidemo.ConcurrentStudentRepository;
+import Baidemo.StudentRecord;
+import Baidemo.StudentServer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local load test for StudentServer: starts the server on a free port over a generated roster and
+ * fires GET /students/{id} lookups from many client virtual threads at once, then reports throughput.
+ * Not a JMH benchmark; run it after "ant bench" has compiled the classes:
+ * java -cp dist/Baidemo.jar:build/bench/classes Baidemo.bench.ServerLoadTest [students] [clients] [requestsPerClient]
+ */
+public class ServerLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int requestsPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        StudentRecord[] students = StudentData.generate(size, 42);
+        ConcurrentStudentRepository repository = new ConcurrentStudentRepository();
+        repository.addAll(Arrays.asList(students));
+        String[] ids = StudentData.ids(students);
+
+        StudentServer server = new StudentServer(repository, 0);
+        server.start();
+        String base = "http://localhost:" + server.getPort() + "/students/";
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        AtomicLong failures = new AtomicLong();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        String id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(base + id)).GET().build();
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            server.stop();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = (long) clients * requestsPerClient;
+        System.out.printf("%d requests from %d clients in %.2f s: %.0f requests/s, %d failed%n",
+                total, clients, seconds, total / seconds, failures.get());
+    }
+}
@@ -0,0 +1,66 @@
+package Baidemo.bench;
+
+import Baidemo.SortEngine;
+import Baidemo.StudentRecord;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * O(n log n) and radix sorts from SortEngine by ID and by marks, 1K to 10M students.
+ * Each invocation sorts a fresh copy of the shuffled roster; copyOnly measures that copy on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SortBenchmark {
+
+    private static final Comparator<StudentRecord> BY_MARKS = Comparator.comparingDouble(StudentRecord::getMarks);
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"MERGE", "TIM", "RADIX"})
+    public SortEngine.Algorithm algorithm;
+
+    private StudentRecord[] roster;
+
+    @Setup
+    public void setUp() {
+        roster = StudentData.generate(size, 42);
+    }
+
+    @Benchmark
+    public StudentRecord[] copyOnly() {
+        return Arrays.copyOf(roster, roster.length);
+    }
+
+    @Benchmark
+    public StudentRecord[] sortById() {
+        StudentRecord[] students = Arrays.copyOf(roster, roster.length);
+        SortEngine.sort(students, 0, students.length, algorithm, StudentRecord.ID_ORDER, StudentRecord::getIdKey);
+        return students;
+    }
+
+    @Benchmark
+    public StudentRecord[] sortByMarks() {
+        StudentRecord[] students = Arrays.copyOf(roster, roster.length);
+        SortEngine.sort(students, 0, students.length, algorithm, BY_MARKS,
+                student -> SortEngine.sortableKey(student.getMarks()));
+        return students;
+    }
+}
@@ -0,0 +1,98 @@
+package Baidemo.bench;
+
+import Baidemo.StudentRecord;
+import Baidemo.StudentSnapshot;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Student Data
+ *
+ * Synthetic rosters for the benchmarks. IDs are unique, numeric and shuffled (2024000000 upwards),
+ * names are drawn from common Vietnamese family, middle and given names so they repeat the way real
+ * rosters do, and marks are 0-10 in steps of 0.1. The same size and seed always give the same roster.
+ */
+public final class StudentData {
+
+    private static final String[] FAMILY_NAMES = {
+        "Nguyen", "Tran", "Le", "Pham", "Hoang", "Huynh", "Phan", "Vu", "Vo", "Dang", "Bui", "Do", "Ho", "Ngo", "Duong", "Ly"
+    };
+    private static final String[] MIDDLE_NAMES = {"Van", "Thi", "Minh", "Duc", "Ngoc", "Thanh", "Quang", "Huu"};
+    private static final String[] GIVEN_NAMES = {
+        "An", "Binh", "Chi", "Dung", "Giang", "Ha", "Hai", "Hieu", "Hoa", "Hung", "Khanh", "Lan", "Linh", "Long",
+        "Mai", "Nam", "Nga", "Phuc", "Quan", "Son", "Tam", "Thao", "Trang", "Tuan", "Vy", "Yen"
+    };
+    public static final long FIRST_ID = 2024000000L;
+
+    private StudentData() {
+    }
+
+    public static StudentRecord[] generate(int size, long seed) {
+        Random random = new Random(seed);
+        long[] ids = new long[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = FIRST_ID + i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long temp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = temp;
+        }
+        StudentRecord[] students = new StudentRecord[size];
+        for (int i = 0; i < size; i++) {
+            String name = FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)] + " "
+                    + MIDDLE_NAMES[random.nextInt(MIDDLE_NAMES.length)] + " "
+                    + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+            students[i] = new StudentRecord(Long.toString(ids[i]), name, random.nextInt(101) / 10.0);
+        }
+        return students;
+    }
+
+    /**
+     * IDs to look up: a mix of present IDs in random order and, when missRate is above zero, absent ones.
+     */
+    public static String[] lookupIds(StudentRecord[] students, int count, double missRate, long seed) {
+        Random random = new Random(seed);
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = random.nextDouble() < missRate
+                    ? Long.toString(FIRST_ID - 1 - random.nextInt(1_000_000))
+                    : students[random.nextInt(students.length)].getId();
+        }
+        return ids;
+    }
+
+    public static void writeCsv(StudentRecord[] students, Path target) throws IOException {
+        StudentSnapshot.writeCsv(target, ids(students), names(students), marks(students), students.length);
+    }
+
+    public static void writeSnapshot(StudentRecord[] students, Path target, boolean compress) throws IOException {
+        StudentSnapshot.write(target, ids(students), names(students), marks(students), students.length, compress);
+    }
+
+    static String[] ids(StudentRecord[] students) {
+        String[] ids = new String[students.length];
+        for (int i = 0; i < students.length; i++) {
+            ids[i] = students[i].getId();
+        }
+        return ids;
+    }
+
+    static String[] names(StudentRecord[] students) {
+        String[] names = new String[students.length];
+        for (int i = 0; i < students.length; i++) {
+            names[i] = students[i].getName();
+        }
+        return names;
+    }
+
+    static double[] marks(StudentRecord[] students) {
+        double[] marks = new double[students.length];
+        for (int i = 0; i < students.length; i++) {
+            marks[i] = students[i].getMarks();
+        }
+        return marks;
+    }
+}
@@ -0,0 +1,165 @@
+package Baidemo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Array Student Repository
+ *
+ * The original StudentManagementSystemWithArray storage: a growable array of student slots with no
+ * size limit, searched by linear scan. A hash map from ID to slot finds the student for get, edit and
+ * delete in O(1). Delete leaves a tombstone (an empty slot) instead of shifting the following
+ * students left, and add fills the most recently emptied slot before growing the array, so storage
+ * order is slot order. Once tombstones outnumber students (and COMPACT_MIN_TOMBSTONES have built up)
+ * the students start sliding down over the gaps, COMPACT_STEP slots per later add or delete, so no
+ * single delete pays for moving the whole roster and scans soon go back to visiting about as many
+ * slots as there are students. Sorting finishes any compaction still under way first.
+ */
+public class ArrayStudentRepository implements StudentRepository {
+
+    static final int COMPACT_MIN_TOMBSTONES = 64;
+    static final int COMPACT_STEP = 16;
+
+    private StudentRecord[] students = new StudentRecord[100]; // Initial capacity of 100
+    private int end = 0;          // Slots in use, students and tombstones
+    private int studentCount = 0;
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+    // While compacting, slots below compactTo hold no gaps, slots from compactFrom to end are not yet
+    // visited and the slots in between are empty; compactFrom is -1 otherwise
+    private int compactTo;
+    private int compactFrom = -1;
+
+    @Override
+    public boolean add(StudentRecord student) {
+        if (slotById.containsKey(student.getId())) {
+            return false;
+        }
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (end >= students.length) {
+                students = Arrays.copyOf(students, students.length * 2);
+            }
+            slot = end++;
+        }
+        students[slot] = student;
+        slotById.put(student.getId(), slot);
+        studentCount++;
+        compactStep(COMPACT_STEP);
+        return true;
+    }
+
+    @Override
+    public StudentRecord get(String id) {
+        Integer slot = slotById.get(id);
+        return slot != null ? students[slot] : null;
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        StudentRecord student = get(id);
+        if (student == null) {
+            return false;
+        }
+        student.setName(name);
+        student.setMarks(marks);
+        return true;
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return null;
+        }
+        StudentRecord student = students[slot];
+        students[slot] = null;
+        studentCount--;
+        // A slot the compaction has yet to reach is dropped by it, so it must not be handed out again
+        if (compactFrom < 0 || slot < compactTo) {
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+        int tombstones = end - studentCount;
+        if (compactFrom < 0 && tombstones >= COMPACT_MIN_TOMBSTONES && tombstones > studentCount) {
+            // Free slots could lie anywhere, including ahead of the compaction
+            freeCount = 0;
+            compactTo = 0;
+            compactFrom = 0;
+        }
+        compactStep(COMPACT_STEP);
+        return student;
+    }
+
+    /**
+     * Slides up to slots students or tombstones of the compaction under way, keeping the students'
+     * order, and ends it once every slot has been visited.
+     */
+    private void compactStep(int slots) {
+        if (compactFrom < 0) {
+            return;
+        }
+        int stop = (int) Math.min((long) compactFrom + slots, end);
+        for (; compactFrom < stop; compactFrom++) {
+            StudentRecord student = students[compactFrom];
+            if (student == null) {
+                continue;
+            }
+            if (compactFrom != compactTo) {
+                students[compactTo] = student;
+                students[compactFrom] = null;
+                slotById.put(student.getId(), compactTo);
+            }
+            compactTo++;
+        }
+        if (compactFrom == end) {
+            end = compactTo;
+            compactFrom = -1;
+        }
+    }
+
+    /**
+     * Slides every student down over the tombstones, keeping their order, and forgets the free slots.
+     */
+    private void compact() {
+        // Starts over even if a compaction is under way, since deletes may have left gaps behind it
+        compactTo = 0;
+        compactFrom = 0;
+        freeCount = 0;
+        compactStep(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void sort(SortEngine.Algorithm algorithm, Comparator<? super StudentRecord> order,
+            ToLongFunction<? super StudentRecord> radixKey) {
+        compact();
+        SortEngine.sort(students, 0, studentCount, algorithm, order, radixKey);
+        for (int slot = 0; slot < studentCount; slot++) {
+            slotById.put(students[slot].getId(), slot);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super StudentRecord> action) {
+        for (int i = 0; i < end; i++) {
+            StudentRecord student = students[i];
+            if (student != null) {
+                action.accept(student);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return studentCount;
+    }
+}
@@ -0,0 +1,292 @@
+package Baidemo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caching Student Repository
+ *
+ * Wraps a repository and remembers the results of its searches (by name, name prefix, similar name,
+ * ID range), leaderboards, percentiles and sorted views, so asking the same question again between
+ * edits costs a hash lookup. Every add, edit, delete and sort through this wrapper advances a
+ * version number, and each cached result is stamped with the version it was computed at; a result
+ * from an older version is a miss and is dropped when found. Loading a roster means
+ * building a new wrapper, which starts empty.
+ *
+ * The cache is bounded both by entries and by the total number of students held in cached results,
+ * evicting the least recently used first; a result larger than the whole student budget is not
+ * cached. Sorting in place by ID or by marks again with nothing changed since the last such sort is
+ * skipped, since the roster is already in that order.
+ *
+ * Changes must go through this wrapper (or a wrapper around it), otherwise cached results go stale.
+ */
+public class CachingStudentRepository extends ForwardingStudentRepository {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final int DEFAULT_MAX_STUDENTS = 1 << 20;
+
+    private final int maxEntries;
+    private final long maxStudents;
+    private final AtomicLong version = new AtomicLong();
+    private final LinkedHashMap<List<Object>, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedStudents; // Total weight of entries, guarded by entries
+    private long hits;
+    private long misses;
+    private long evictions;
+    private String sortedBy;     // "id" or "marks" if the last sort was sortById or sortByMarks
+    private long sortedVersion;  // The version that sort left behind
+
+    private static final class Entry {
+        final long version;
+        final List<StudentRecord> value;
+        final int weight;
+
+        Entry(long version, List<StudentRecord> value, int weight) {
+            this.version = version;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    public CachingStudentRepository(StudentRepository delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_STUDENTS);
+    }
+
+    public CachingStudentRepository(StudentRepository delegate, int maxEntries, long maxStudents) {
+        super(delegate);
+        if (maxEntries < 0 || maxStudents < 0) {
+            throw new IllegalArgumentException("Cache limits must not be negative: " + maxEntries + ", " + maxStudents);
+        }
+        this.maxEntries = maxEntries;
+        this.maxStudents = maxStudents;
+    }
+
+    /**
+     * Counts of lookups answered from the cache and lookups that had to ask the wrapped repository.
+     */
+    public long getHits() {
+        synchronized (entries) {
+            return hits;
+        }
+    }
+
+    public long getMisses() {
+        synchronized (entries) {
+            return misses;
+        }
+    }
+
+    public long getEvictions() {
+        synchronized (entries) {
+            return evictions;
+        }
+    }
+
+    public int getEntryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Drops every cached result, for when the roster was changed behind this wrapper's back.
+     */
+    public void invalidate() {
+        changed();
+        synchronized (entries) {
+            entries.clear();
+            cachedStudents = 0;
+        }
+    }
+
+    @Override
+    public boolean add(StudentRecord student) {
+        try {
+            return delegate.add(student);
+        } finally {
+            changed();
+        }
+    }
+
+    @Override
+    public int addAll(Iterable<StudentRecord> students) {
+        try {
+            return delegate.addAll(students);
+        } finally {
+            changed();
+        }
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        try {
+            return delegate.update(id, name, marks);
+        } finally {
+            changed();
+        }
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        try {
+            return delegate.delete(id);
+        } finally {
+            changed();
+        }
+    }
+
+    @Override
+    public void sort(SortEngine.Algorithm algorithm, Comparator<? super StudentRecord> order,
+            ToLongFunction<? super StudentRecord> radixKey) {
+        try {
+            delegate.sort(algorithm, order, radixKey);
+        } finally {
+            changed();
+        }
+    }
+
+    @Override
+    public void sortById(SortEngine.Algorithm algorithm) {
+        sortBy("id", () -> delegate.sortById(algorithm));
+    }
+
+    @Override
+    public void sortByMarks(SortEngine.Algorithm algorithm) {
+        sortBy("marks", () -> delegate.sortByMarks(algorithm));
+    }
+
+    private void sortBy(String key, Runnable sort) {
+        synchronized (entries) {
+            if (key.equals(sortedBy) && sortedVersion == version.get()) {
+                hits++;
+                return;
+            }
+            misses++;
+        }
+        try {
+            sort.run();
+        } finally {
+            long sorted = changed();
+            synchronized (entries) {
+                sortedBy = key;
+                sortedVersion = sorted;
+            }
+        }
+    }
+
+    @Override
+    public List<StudentRecord> findByName(String name) {
+        return cachedList(Arrays.asList("name", name), () -> delegate.findByName(name));
+    }
+
+    @Override
+    public List<StudentRecord> findByNamePrefix(String prefix, int limit) {
+        return cachedList(Arrays.asList("prefix", prefix, limit), () -> delegate.findByNamePrefix(prefix, limit));
+    }
+
+    @Override
+    public List<StudentRecord> findByNameFuzzy(String name, int maxDistance, int limit) {
+        return cachedList(Arrays.asList("fuzzy", name, maxDistance, limit),
+                () -> delegate.findByNameFuzzy(name, maxDistance, limit));
+    }
+
+    @Override
+    public List<StudentRecord> findByIdRange(String fromId, String toId) {
+        return cachedList(Arrays.asList("range", fromId, toId), () -> delegate.findByIdRange(fromId, toId));
+    }
+
+    @Override
+    public List<StudentRecord> topByMarks(int k) {
+        return cachedList(Arrays.asList("top", k), () -> delegate.topByMarks(k));
+    }
+
+    @Override
+    public List<StudentRecord> bottomByMarks(int k) {
+        return cachedList(Arrays.asList("bottom", k), () -> delegate.bottomByMarks(k));
+    }
+
+    @Override
+    public StudentRecord atMarksPercentile(double percent) {
+        List<StudentRecord> found = cachedList(Arrays.asList("percentile", percent), () -> {
+            StudentRecord student = delegate.atMarksPercentile(percent);
+            return student != null ? Collections.singletonList(student) : Collections.emptyList();
+        });
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    @Override
+    public List<StudentRecord> sortedBy(StudentOrder order) {
+        return cachedList(Arrays.asList("sorted", order.toString()), () -> delegate.sortedBy(order));
+    }
+
+    /**
+     * The cached result for the key if it is current, otherwise a freshly computed one. The version is
+     * read before computing, so a result that raced with a change is stamped as already stale.
+     */
+    private List<StudentRecord> cachedList(List<Object> key, Supplier<List<StudentRecord>> compute) {
+        long current = version.get();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version == current) {
+                hits++;
+                return entry.value;
+            }
+            if (entry != null) {
+                remove(key, entry);
+            }
+            misses++;
+        }
+        List<StudentRecord> value = Collections.unmodifiableList(compute.get());
+        int weight = value.size() + 1;
+        synchronized (entries) {
+            if (weight <= maxStudents && maxEntries > 0) {
+                Entry old = entries.put(key, new Entry(current, value, weight));
+                if (old != null) {
+                    cachedStudents -= old.weight;
+                }
+                cachedStudents += weight;
+                evictEldest();
+            }
+        }
+        return value;
+    }
+
+    private void evictEldest() {
+        Iterator<Map.Entry<List<Object>, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || cachedStudents > maxStudents) && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            cachedStudents -= eldest.weight;
+            evictions++;
+        }
+    }
+
+    private void remove(List<Object> key, Entry entry) {
+        entries.remove(key);
+        cachedStudents -= entry.weight;
+    }
+
+    /**
+     * Advances the version. Called after a change, even a failed one, has reached the wrapped repository.
+     */
+    private long changed() {
+        return version.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        synchronized (entries) {
+            long lookups = hits + misses;
+            return String.format("Cache: %d hits, %d misses (%.1f%% hit rate), %d results holding %d students, %d evicted",
+                    hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups, entries.size(), cachedStudents, evictions);
+        }
+    }
+}
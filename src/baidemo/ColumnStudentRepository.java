@@ -0,0 +1,193 @@
+package Baidemo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Column Student Repository
+ *
+ * Repository over a StudentColumnStore. Only numeric IDs written without leading zeros are accepted,
+ * since the store keeps the ID as a long. Records handed out are copies built from the columns.
+ */
+public class ColumnStudentRepository implements StudentRepository {
+
+    private final StudentColumnStore store = new StudentColumnStore();
+
+    @Override
+    public boolean add(StudentRecord student) {
+        long key = keyOf(student.getId());
+        if (key == StudentRecord.NON_NUMERIC_ID) {
+            throw new IllegalArgumentException("The column store only holds numeric IDs: " + student.getId());
+        }
+        return store.add(key, student.getName(), student.getMarks());
+    }
+
+    @Override
+    public StudentRecord get(String id) {
+        int row = rowOf(id);
+        return row >= 0 ? store.toRecord(row) : null;
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        long key = keyOf(id);
+        return key != StudentRecord.NON_NUMERIC_ID && store.update(key, name, marks);
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return null;
+        }
+        StudentRecord student = store.toRecord(row);
+        store.delete(store.getId(row));
+        return student;
+    }
+
+    @Override
+    public List<StudentRecord> findByName(String name) {
+        int[] rows = store.findRowsByName(name);
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(store.size());
+        }
+        List<StudentRecord> found = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            found.add(store.toRecord(row));
+        }
+        return found;
+    }
+
+    @Override
+    public List<StudentRecord> findByIdRange(String fromId, String toId) {
+        long fromKey = StudentRecord.parseIdKey(fromId);
+        long toKey = StudentRecord.parseIdKey(toId);
+        List<StudentRecord> found = new ArrayList<>();
+        for (int row = 0; row < store.size(); row++) {
+            long id = store.getId(row);
+            if (StudentRecord.compareIds(id, Long.toString(id), fromKey, fromId) >= 0
+                    && StudentRecord.compareIds(id, Long.toString(id), toKey, toId) <= 0) {
+                found.add(store.toRecord(row));
+            }
+        }
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(store.size());
+        }
+        found.sort(StudentRecord.ID_ORDER);
+        return found;
+    }
+
+    @Override
+    public List<StudentRecord> topByMarks(int k) {
+        SortEngine.BoundedHeap<Integer> top = new SortEngine.BoundedHeap<>(k, store::compareLeaderboard);
+        for (int row = 0; row < store.size(); row++) {
+            top.accept(row);
+        }
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(store.size());
+        }
+        return toRecords(top.toSortedList());
+    }
+
+    @Override
+    public List<StudentRecord> bottomByMarks(int k) {
+        SortEngine.BoundedHeap<Integer> bottom =
+                new SortEngine.BoundedHeap<>(k, (a, b) -> store.compareLeaderboard(b, a));
+        for (int row = 0; row < store.size(); row++) {
+            bottom.accept(row);
+        }
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(store.size());
+        }
+        return toRecords(bottom.toSortedList());
+    }
+
+    @Override
+    public StudentRecord atMarksPercentile(double percent) {
+        int rank = StudentRepositories.percentileRank(percent, store.size());
+        if (rank < 0) {
+            return null;
+        }
+        Integer[] rows = new Integer[store.size()];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = row;
+        }
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(rows.length);
+        }
+        Comparator<Integer> ascending = (a, b) -> store.compareLeaderboard(b, a);
+        return store.toRecord(SortEngine.select(rows, 0, rows.length, rank, ascending));
+    }
+
+    /**
+     * IDs here are plain numbers, so their order is the order of the long column: a radix pass over
+     * it yields the row permutation directly, whichever algorithm was asked for.
+     */
+    @Override
+    public void sortById(SortEngine.Algorithm algorithm) {
+        store.reorder(store.rowsOrderedById());
+    }
+
+    @Override
+    public void sortByMarks(SortEngine.Algorithm algorithm) {
+        store.reorder(store.rowsOrderedByMarks());
+    }
+
+    /**
+     * Any other order sorts copies of the rows and then moves the columns into that order in one pass.
+     */
+    @Override
+    public void sort(SortEngine.Algorithm algorithm, Comparator<? super StudentRecord> order,
+            ToLongFunction<? super StudentRecord> radixKey) {
+        int n = store.size();
+        StudentRecord[] sorted = new StudentRecord[n];
+        for (int row = 0; row < n; row++) {
+            sorted[row] = store.toRecord(row);
+        }
+        SortEngine.sort(sorted, 0, n, algorithm, order, radixKey);
+        int[] rows = new int[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = store.findRow(sorted[i].getIdKey());
+        }
+        store.reorder(rows);
+    }
+
+    @Override
+    public void forEach(Consumer<? super StudentRecord> action) {
+        for (int row = 0; row < store.size(); row++) {
+            action.accept(store.toRecord(row));
+        }
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean storesRecords() {
+        return false;
+    }
+
+    private List<StudentRecord> toRecords(List<Integer> rows) {
+        List<StudentRecord> records = new ArrayList<>(rows.size());
+        for (int row : rows) {
+            records.add(store.toRecord(row));
+        }
+        return records;
+    }
+
+    private int rowOf(String id) {
+        long key = keyOf(id);
+        return key == StudentRecord.NON_NUMERIC_ID ? -1 : store.findRow(key);
+    }
+
+    // The numeric key of an ID that prints back identically, otherwise NON_NUMERIC_ID
+    static long keyOf(String id) {
+        long key = StudentRecord.parseIdKey(id);
+        return key != StudentRecord.NON_NUMERIC_ID && Long.toString(key).equals(id) ? key : StudentRecord.NON_NUMERIC_ID;
+    }
+}
@@ -0,0 +1,195 @@
+package Baidemo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Concurrent Student Repository
+ *
+ * Thread-safe backend for imports running while clerks edit records. Reads take no lock: every
+ * student has a Slot in a ConcurrentHashMap, and an update publishes a new StudentRecord in the slot
+ * instead of changing the old one. StudentRecord has setters, but a record is never modified once
+ * other threads can see it, so a reader always sees a whole record. Writes lock one of
+ * 64 stripes chosen by the ID. Sorting locks every stripe and swaps in a new display order.
+ * A skip list of the published records in leaderboard order answers top and bottom k by marks
+ * in O(log n + k); an update swaps the old record for the new one under the stripe lock.
+ *
+ * Iteration and range queries are weakly consistent: they never fail under concurrent writes but may
+ * or may not include changes made while they run. Records handed out must not be modified.
+ */
+public class ConcurrentStudentRepository implements StudentRepository {
+
+    private static final int STRIPES = 64;
+    private static final Comparator<Slot> SLOT_ORDER =
+            (a, b) -> StudentRecord.compareIds(a.idKey, a.id, b.idKey, b.id);
+
+    private final IdStripes stripes = new IdStripes(STRIPES);
+    private final Map<String, Slot> byId = new ConcurrentHashMap<>();
+    private final NavigableSet<Slot> orderedById = new ConcurrentSkipListSet<>(SLOT_ORDER);
+    private final NavigableSet<StudentRecord> byMarks = new ConcurrentSkipListSet<>(StudentRecord.LEADERBOARD_ORDER);
+    // Display order: position -> slot. Replaced as a whole by sort
+    private volatile ConcurrentSkipListMap<Long, Slot> byPosition = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextPosition = new AtomicLong();
+
+    private static final class Slot {
+        final String id;
+        final long idKey;
+        long position; // Written under the stripe lock, or under every lock while sorting
+        volatile StudentRecord record;
+
+        Slot(String id) {
+            this.id = id;
+            this.idKey = StudentRecord.parseIdKey(id);
+        }
+    }
+
+    @Override
+    public boolean add(StudentRecord student) {
+        ReentrantLock lock = stripes.forId(student.getId());
+        lock.lock();
+        try {
+            if (byId.containsKey(student.getId())) {
+                return false;
+            }
+            Slot slot = new Slot(student.getId());
+            slot.record = student;
+            slot.position = nextPosition.getAndIncrement();
+            byId.put(slot.id, slot);
+            orderedById.add(slot);
+            byMarks.add(student);
+            byPosition.put(slot.position, slot);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StudentRecord get(String id) {
+        Slot slot = byId.get(id);
+        return slot != null ? slot.record : null;
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        ReentrantLock lock = stripes.forId(id);
+        lock.lock();
+        try {
+            Slot slot = byId.get(id);
+            if (slot == null) {
+                return false;
+            }
+            StudentRecord updated = new StudentRecord(id, name, marks);
+            // Readers of the index may briefly see both records or neither, like any weakly consistent view
+            byMarks.remove(slot.record);
+            slot.record = updated;
+            byMarks.add(updated);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        ReentrantLock lock = stripes.forId(id);
+        lock.lock();
+        try {
+            Slot slot = byId.remove(id);
+            if (slot == null) {
+                return null;
+            }
+            orderedById.remove(slot);
+            byMarks.remove(slot.record);
+            byPosition.remove(slot.position);
+            return slot.record;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<StudentRecord> findByIdRange(String fromId, String toId) {
+        Slot from = new Slot(fromId);
+        Slot to = new Slot(toId);
+        List<StudentRecord> found = new ArrayList<>();
+        if (SLOT_ORDER.compare(from, to) > 0) {
+            return found;
+        }
+        for (Slot slot : orderedById.subSet(from, true, to, true)) {
+            found.add(slot.record);
+        }
+        return found;
+    }
+
+    @Override
+    public List<StudentRecord> topByMarks(int k) {
+        return StudentRepositories.firstOf(byMarks, k);
+    }
+
+    @Override
+    public List<StudentRecord> bottomByMarks(int k) {
+        return StudentRepositories.firstOf(byMarks.descendingSet(), k);
+    }
+
+    @Override
+    public StudentRecord atMarksPercentile(double percent) {
+        return StudentRepositories.atPercentile(byMarks, byId.size(), percent, false);
+    }
+
+    /**
+     * Blocks writers for the duration of the sort; readers keep using the old order until it is replaced.
+     */
+    @Override
+    public void sort(SortEngine.Algorithm algorithm, Comparator<? super StudentRecord> order,
+            ToLongFunction<? super StudentRecord> radixKey) {
+        stripes.lockAll();
+        try {
+            List<Slot> slots = new ArrayList<>(byPosition.values());
+            StudentRecord[] sorted = new StudentRecord[slots.size()];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = slots.get(i).record;
+            }
+            SortEngine.sort(sorted, 0, sorted.length, algorithm, order, radixKey);
+            ConcurrentSkipListMap<Long, Slot> reordered = new ConcurrentSkipListMap<>();
+            for (int i = 0; i < sorted.length; i++) {
+                Slot slot = byId.get(sorted[i].getId());
+                slot.position = i;
+                reordered.put((long) i, slot);
+            }
+            nextPosition.set(sorted.length);
+            byPosition = reordered;
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super StudentRecord> action) {
+        for (Slot slot : byPosition.values()) {
+            action.accept(slot.record);
+        }
+    }
+
+    @Override
+    public Set<Index> indexes() {
+        return EnumSet.of(Index.ID_RANGE, Index.MARKS);
+    }
+
+    @Override
+    public int size() {
+        return byId.size();
+    }
+}
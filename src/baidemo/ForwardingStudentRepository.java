@@ -0,0 +1,141 @@
+package Baidemo;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Forwarding Student Repository
+ *
+ * Base for repositories that wrap another one and add behaviour around some operations, such as
+ * JournaledStudentRepository, StatisticsStudentRepository and CachingStudentRepository. Every method
+ * passes straight through to the wrapped repository, so subclasses override only what they change and
+ * keep the backend's own indexed searches and sorts.
+ */
+public abstract class ForwardingStudentRepository implements StudentRepository {
+
+    protected final StudentRepository delegate;
+
+    protected ForwardingStudentRepository(StudentRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean add(StudentRecord student) {
+        return delegate.add(student);
+    }
+
+    @Override
+    public int addAll(Iterable<StudentRecord> students) {
+        return delegate.addAll(students);
+    }
+
+    @Override
+    public StudentRecord get(String id) {
+        return delegate.get(id);
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        return delegate.update(id, name, marks);
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        return delegate.delete(id);
+    }
+
+    @Override
+    public List<StudentRecord> findByName(String name) {
+        return delegate.findByName(name);
+    }
+
+    @Override
+    public List<StudentRecord> findByNamePrefix(String prefix, int limit) {
+        return delegate.findByNamePrefix(prefix, limit);
+    }
+
+    @Override
+    public List<StudentRecord> findByNameFuzzy(String name, int maxDistance, int limit) {
+        return delegate.findByNameFuzzy(name, maxDistance, limit);
+    }
+
+    @Override
+    public List<StudentRecord> findByIdRange(String fromId, String toId) {
+        return delegate.findByIdRange(fromId, toId);
+    }
+
+    @Override
+    public List<StudentRecord> topByMarks(int k) {
+        return delegate.topByMarks(k);
+    }
+
+    @Override
+    public List<StudentRecord> bottomByMarks(int k) {
+        return delegate.bottomByMarks(k);
+    }
+
+    @Override
+    public StudentRecord atMarksPercentile(double percent) {
+        return delegate.atMarksPercentile(percent);
+    }
+
+    @Override
+    public void sort(SortEngine.Algorithm algorithm, Comparator<? super StudentRecord> order,
+            ToLongFunction<? super StudentRecord> radixKey) {
+        delegate.sort(algorithm, order, radixKey);
+    }
+
+    @Override
+    public void sortById(SortEngine.Algorithm algorithm) {
+        delegate.sortById(algorithm);
+    }
+
+    @Override
+    public void sortByMarks(SortEngine.Algorithm algorithm) {
+        delegate.sortByMarks(algorithm);
+    }
+
+    @Override
+    public List<StudentRecord> sortedBy(StudentOrder order) {
+        return delegate.sortedBy(order);
+    }
+
+    @Override
+    public void forEach(Consumer<? super StudentRecord> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public List<StudentRecord> all() {
+        return delegate.all();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public Set<Index> indexes() {
+        return delegate.indexes();
+    }
+
+    @Override
+    public boolean storesRecords() {
+        return delegate.storesRecords();
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return delegate.isPersistent();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
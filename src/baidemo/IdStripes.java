@@ -0,0 +1,41 @@
+package Baidemo;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Id Stripes
+ *
+ * A fixed set of locks chosen by the hash of a student ID, so writers of different IDs rarely wait on
+ * each other while two writers of the same ID are always serialised. lockAll takes every stripe in
+ * index order for operations on the whole roster.
+ */
+final class IdStripes {
+
+    private final ReentrantLock[] locks;
+
+    IdStripes(int stripes) {
+        // Round up to a power of two so the stripe is a mask of the hash
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    ReentrantLock forId(String id) {
+        int h = id.hashCode();
+        return locks[(h ^ (h >>> 16)) & (locks.length - 1)];
+    }
+
+    void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+}
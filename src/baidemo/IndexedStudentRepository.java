@@ -0,0 +1,121 @@
+package Baidemo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Indexed Student Repository
+ *
+ * Students kept in a LinkedHashMap by ID, which gives O(1) lookup, update and delete while keeping
+ * the display order, plus a TreeSet in ID order for O(log n) binary search and range queries and one
+ * in leaderboard order, so the top or bottom k students by marks take O(log n + k).
+ * Sorting rebuilds the map in the new order.
+ */
+public class IndexedStudentRepository implements StudentRepository {
+
+    private Map<String, StudentRecord> students = new LinkedHashMap<>();
+    private final NavigableSet<StudentRecord> orderedById = new TreeSet<>(StudentRecord.ID_ORDER);
+    private final NavigableSet<StudentRecord> byMarks = new TreeSet<>(StudentRecord.LEADERBOARD_ORDER);
+
+    @Override
+    public boolean add(StudentRecord student) {
+        if (students.putIfAbsent(student.getId(), student) != null) {
+            return false;
+        }
+        orderedById.add(student);
+        byMarks.add(student);
+        return true;
+    }
+
+    @Override
+    public StudentRecord get(String id) {
+        return students.get(id);
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        StudentRecord student = students.get(id);
+        if (student == null) {
+            return false;
+        }
+        student.setName(name);
+        if (Double.compare(student.getMarks(), marks) != 0) {
+            // The tree finds the record by its old marks, so take it out before they change
+            byMarks.remove(student);
+            student.setMarks(marks);
+            byMarks.add(student);
+        }
+        return true;
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        StudentRecord student = students.remove(id);
+        if (student != null) {
+            orderedById.remove(student);
+            byMarks.remove(student);
+        }
+        return student;
+    }
+
+    @Override
+    public List<StudentRecord> findByIdRange(String fromId, String toId) {
+        StudentRecord from = new StudentRecord(fromId, "", 0);
+        StudentRecord to = new StudentRecord(toId, "", 0);
+        if (StudentRecord.ID_ORDER.compare(from, to) > 0) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(orderedById.subSet(from, true, to, true));
+    }
+
+    @Override
+    public List<StudentRecord> topByMarks(int k) {
+        return StudentRepositories.firstOf(byMarks, k);
+    }
+
+    @Override
+    public List<StudentRecord> bottomByMarks(int k) {
+        return StudentRepositories.firstOf(byMarks.descendingSet(), k);
+    }
+
+    @Override
+    public StudentRecord atMarksPercentile(double percent) {
+        return StudentRepositories.atPercentile(byMarks, byMarks.size(), percent, true);
+    }
+
+    @Override
+    public void sort(SortEngine.Algorithm algorithm, Comparator<? super StudentRecord> order,
+            ToLongFunction<? super StudentRecord> radixKey) {
+        StudentRecord[] sorted = students.values().toArray(new StudentRecord[0]);
+        SortEngine.sort(sorted, 0, sorted.length, algorithm, order, radixKey);
+        Map<String, StudentRecord> reordered = new LinkedHashMap<>(Math.max(16, sorted.length * 4 / 3 + 1));
+        for (StudentRecord student : sorted) {
+            reordered.put(student.getId(), student);
+        }
+        students = reordered;
+    }
+
+    @Override
+    public void forEach(Consumer<? super StudentRecord> action) {
+        students.values().forEach(action);
+    }
+
+    @Override
+    public Set<Index> indexes() {
+        return EnumSet.of(Index.ID_RANGE, Index.MARKS);
+    }
+
+    @Override
+    public int size() {
+        return students.size();
+    }
+}
@@ -0,0 +1,173 @@
+package Baidemo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Journaled Student Repository
+ *
+ * Wraps an in-memory repository and appends every successful add, edit and delete to a
+ * StudentJournal, so the snapshot file plus the journal always hold the current roster.
+ * open replays the journal left by a crashed session into the wrapped repository.
+ *
+ * A change that was applied but could not be journaled is reported as UncheckedIOException.
+ * Changes to one ID are applied and journaled under the same stripe lock, so with a thread-safe
+ * backend the journal replays to the same state even when many threads write at once.
+ */
+public class JournaledStudentRepository extends ForwardingStudentRepository {
+
+    private final StudentJournal journal;
+    private final Path snapshotFile;
+    private final IdStripes stripes = new IdStripes(64);
+    private int recoveredChanges;
+
+    private JournaledStudentRepository(StudentRepository delegate, StudentJournal journal, Path snapshotFile) {
+        super(delegate);
+        this.journal = journal;
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Opens the journal and replays it into the repository, which should already hold the snapshot.
+     */
+    public static JournaledStudentRepository open(StudentRepository delegate, Path snapshotFile, Path journalFile) throws IOException {
+        JournaledStudentRepository repository =
+                new JournaledStudentRepository(delegate, StudentJournal.open(journalFile), snapshotFile);
+        repository.recoveredChanges = repository.journal.replay(new StudentJournal.Listener() {
+            @Override
+            public void onAdd(String id, String name, double marks) {
+                try {
+                    delegate.add(new StudentRecord(id, name, marks));
+                } catch (IllegalArgumentException e) {
+                    // The backend does not accept this ID; it was never stored
+                }
+            }
+
+            @Override
+            public void onEdit(String id, String name, double marks) {
+                delegate.update(id, name, marks);
+            }
+
+            @Override
+            public void onDelete(String id) {
+                delegate.delete(id);
+            }
+        });
+        return repository;
+    }
+
+    /**
+     * Number of journal entries replayed by open.
+     */
+    public int getRecoveredChanges() {
+        return recoveredChanges;
+    }
+
+    @Override
+    public boolean add(StudentRecord student) {
+        ReentrantLock lock = stripes.forId(student.getId());
+        lock.lock();
+        try {
+            if (!delegate.add(student)) {
+                return false;
+            }
+            journal.logAdd(student.getId(), student.getName(), student.getMarks());
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the students and then writes a snapshot instead of journaling each one, so a bulk import
+     * becomes durable in one step and does not flood the journal.
+     */
+    @Override
+    public int addAll(Iterable<StudentRecord> students) {
+        stripes.lockAll();
+        try {
+            int added = delegate.addAll(students);
+            if (added > 0) {
+                journal.compactNow(snapshotFile, StudentRepositories.snapshotWriter(delegate));
+            }
+            return added;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        ReentrantLock lock = stripes.forId(id);
+        lock.lock();
+        try {
+            if (!delegate.update(id, name, marks)) {
+                return false;
+            }
+            journal.logEdit(id, name, marks);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        ReentrantLock lock = stripes.forId(id);
+        lock.lock();
+        try {
+            StudentRecord student = delegate.delete(id);
+            if (student != null) {
+                journal.logDelete(id);
+            }
+            return student;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a snapshot on a background thread once the journal has grown past its threshold.
+     */
+    public void compactIfNeeded() throws IOException {
+        if (!journal.needsCompaction()) return;
+        // No change may land between copying the roster and starting the new log
+        stripes.lockAll();
+        try {
+            journal.compactInBackground(snapshotFile, StudentRepositories.snapshotWriter(delegate));
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    /**
+     * Writes a snapshot now; it holds every journaled change, so the journal starts empty.
+     */
+    public void save() throws IOException {
+        stripes.lockAll();
+        try {
+            journal.compactNow(snapshotFile, StudentRepositories.snapshotWriter(delegate));
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            journal.close();
+        } finally {
+            delegate.close();
+        }
+    }
+}
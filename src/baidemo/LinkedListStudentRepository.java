@@ -0,0 +1,77 @@
+package Baidemo;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Linked List Student Repository
+ *
+ * The original StudentManagementSystem storage: a LinkedList searched by linear scan.
+ * Kept as the simplest backend and as a baseline for the indexed ones.
+ */
+public class LinkedListStudentRepository implements StudentRepository {
+
+    private final LinkedList<StudentRecord> students = new LinkedList<>();
+
+    @Override
+    public boolean add(StudentRecord student) {
+        if (get(student.getId()) != null) {
+            return false;
+        }
+        students.add(student);
+        return true;
+    }
+
+    @Override
+    public StudentRecord get(String id) {
+        for (StudentRecord student : students) {
+            if (student.getId().equals(id)) {
+                return student;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        StudentRecord student = get(id);
+        if (student == null) {
+            return false;
+        }
+        student.setName(name);
+        student.setMarks(marks);
+        return true;
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        Iterator<StudentRecord> it = students.iterator();
+        while (it.hasNext()) {
+            StudentRecord student = it.next();
+            if (student.getId().equals(id)) {
+                it.remove();
+                return student;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void sort(SortEngine.Algorithm algorithm, Comparator<? super StudentRecord> order,
+            ToLongFunction<? super StudentRecord> radixKey) {
+        SortEngine.sort(students, algorithm, order, radixKey);
+    }
+
+    @Override
+    public void forEach(Consumer<? super StudentRecord> action) {
+        students.forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return students.size();
+    }
+}
@@ -0,0 +1,123 @@
+package Baidemo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Mapped Student Repository
+ *
+ * Repository over a MappedStudentStore file. The file is the storage, so no snapshot or journal is
+ * needed and changes are written in place. Only numeric IDs without leading zeros are accepted.
+ * Sorting reads the live records, sorts them on the heap and writes them back into the leading
+ * slots. I/O errors are rethrown as UncheckedIOException.
+ */
+public class MappedStudentRepository implements StudentRepository {
+
+    private final MappedStudentStore store;
+
+    public MappedStudentRepository(Path file) throws IOException {
+        this.store = MappedStudentStore.open(file);
+    }
+
+    @Override
+    public boolean add(StudentRecord student) {
+        long key = ColumnStudentRepository.keyOf(student.getId());
+        if (key == StudentRecord.NON_NUMERIC_ID) {
+            throw new IllegalArgumentException("The mapped store only holds numeric IDs: " + student.getId());
+        }
+        try {
+            return store.add(key, student.getName(), student.getMarks());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public StudentRecord get(String id) {
+        long key = ColumnStudentRepository.keyOf(id);
+        if (key == StudentRecord.NON_NUMERIC_ID) {
+            return null;
+        }
+        try {
+            return store.get(key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        long key = ColumnStudentRepository.keyOf(id);
+        if (key == StudentRecord.NON_NUMERIC_ID) {
+            return false;
+        }
+        try {
+            return store.update(key, name, marks);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        StudentRecord student = get(id);
+        if (student == null) {
+            return null;
+        }
+        try {
+            store.delete(student.getIdKey());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return student;
+    }
+
+    @Override
+    public void sort(SortEngine.Algorithm algorithm, Comparator<? super StudentRecord> order,
+            ToLongFunction<? super StudentRecord> radixKey) {
+        StudentRecord[] sorted = all().toArray(new StudentRecord[0]);
+        SortEngine.sort(sorted, 0, sorted.length, algorithm, order, radixKey);
+        try {
+            store.rewrite(sorted);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super StudentRecord> action) {
+        try {
+            store.forEach(action::accept);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int size() {
+        try {
+            return store.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean storesRecords() {
+        return false;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+}
@@ -0,0 +1,356 @@
+package Baidemo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Mapped Student Store
+ *
+ * Student records kept in a binary file of fixed-width slots and accessed through memory mapped
+ * segments, so a roster larger than the heap is opened without reading it and records are read and
+ * updated in place. The OS page cache holds the hot data instead of the Java heap.
+ *
+ * File layout: a 64 byte header (magic, version, slot count) followed by 80 byte slots of
+ * id (long), marks (double), live flag (byte), name length (byte) and up to 62 bytes of UTF-8 name.
+ * Deleted slots are flagged and reused by later adds. The ID index is built on the first ID based
+ * operation, by one sequential pass over the mapped file.
+ */
+public class MappedStudentStore implements Closeable {
+
+    public static final int RECORD_SIZE = 80;
+    public static final int MAX_NAME_BYTES = RECORD_SIZE - 18;
+
+    private static final int MAGIC = 0x5354554D; // "STUM"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int COUNT_OFFSET = 8;
+    // 16M slots per mapping keeps every segment below the 2 GB limit of a MappedByteBuffer
+    private static final int SEGMENT_SHIFT = 24;
+    private static final int SLOTS_PER_SEGMENT = 1 << SEGMENT_SHIFT;
+    private static final int INITIAL_SEGMENT_SLOTS = 1024;
+
+    private static final int ID_OFFSET = 0;
+    private static final int MARKS_OFFSET = 8;
+    private static final int FLAG_OFFSET = 16;
+    private static final int NAME_LENGTH_OFFSET = 17;
+    private static final int NAME_OFFSET = 18;
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 0;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int slotCount;
+    private int liveCount = -1;
+
+    // Built lazily: open addressing table of ID -> slot + 1, plus the free slot stack
+    private long[] indexKeys;
+    private int[] indexSlots;
+    private int[] freeSlots;
+    private int freeCount;
+
+    private MappedStudentStore(FileChannel channel) throws IOException {
+        this.channel = channel;
+        boolean created = channel.size() == 0;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (created) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(COUNT_OFFSET, 0);
+        } else if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a student store file.");
+        } else if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported student store version: " + header.getInt(4));
+        }
+        this.slotCount = (int) header.getLong(COUNT_OFFSET);
+    }
+
+    /**
+     * Opens the store file, creating an empty one if it does not exist.
+     */
+    public static MappedStudentStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new MappedStudentStore(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public boolean add(long id, String name, double marks) throws IOException {
+        ensureIndex();
+        if (findSlot(id) >= 0) {
+            return false;
+        }
+        byte[] nameBytes = encodeName(name);
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = slotCount;
+            segmentFor(slot, true);
+            slotCount++;
+            header.putLong(COUNT_OFFSET, slotCount);
+        }
+        writeSlot(slot, id, nameBytes, marks);
+        indexPut(id, slot);
+        liveCount++;
+        return true;
+    }
+
+    public boolean update(long id, String name, double marks) throws IOException {
+        ensureIndex();
+        int slot = findSlot(id);
+        if (slot < 0) {
+            return false;
+        }
+        writeSlot(slot, id, encodeName(name), marks);
+        return true;
+    }
+
+    public boolean delete(long id) throws IOException {
+        ensureIndex();
+        int slot = findSlot(id);
+        if (slot < 0) {
+            return false;
+        }
+        ByteBuffer segment = segmentFor(slot, false);
+        segment.put(offsetInSegment(slot) + FLAG_OFFSET, DELETED);
+        indexRemove(id);
+        pushFree(slot);
+        liveCount--;
+        return true;
+    }
+
+    public StudentRecord get(long id) throws IOException {
+        ensureIndex();
+        int slot = findSlot(id);
+        return slot < 0 ? null : readSlot(slot);
+    }
+
+    /**
+     * Streams every live record in slot order straight from the mapped file.
+     */
+    public void forEach(Consumer<StudentRecord> action) throws IOException {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (isLive(slot)) {
+                action.accept(readSlot(slot));
+            }
+        }
+    }
+
+    /**
+     * Writes the given records into the leading slots in that order and drops the slots after them,
+     * which also compacts away deleted slots. The records must be exactly the live ones, e.g. the
+     * output of forEach after sorting. Like every write here it happens in place, not atomically.
+     */
+    public void rewrite(StudentRecord[] ordered) throws IOException {
+        byte[][] nameBytes = new byte[ordered.length][];
+        for (int i = 0; i < ordered.length; i++) {
+            nameBytes[i] = encodeName(ordered[i].getName());
+        }
+        for (int slot = 0; slot < ordered.length; slot++) {
+            writeSlot(slot, ordered[slot].getIdKey(), nameBytes[slot], ordered[slot].getMarks());
+        }
+        slotCount = ordered.length;
+        header.putLong(COUNT_OFFSET, slotCount);
+        liveCount = slotCount;
+        // Every ID moved, so the index and free list are rebuilt by the next ID based operation
+        indexKeys = null;
+    }
+
+    /**
+     * Number of live records. Counting needs one pass over the slots the first time.
+     */
+    public int size() throws IOException {
+        if (liveCount < 0) {
+            int live = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (isLive(slot)) {
+                    live++;
+                }
+            }
+            liveCount = live;
+        }
+        return liveCount;
+    }
+
+    /**
+     * Writes dirty pages back to the file.
+     */
+    public void force() {
+        header.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private StudentRecord readSlot(int slot) throws IOException {
+        ByteBuffer segment = segmentFor(slot, false);
+        int base = offsetInSegment(slot);
+        long id = segment.getLong(base + ID_OFFSET);
+        double marks = segment.getDouble(base + MARKS_OFFSET);
+        byte[] nameBytes = new byte[segment.get(base + NAME_LENGTH_OFFSET) & 0xFF];
+        segment.get(base + NAME_OFFSET, nameBytes);
+        return new StudentRecord(Long.toString(id), new String(nameBytes, StandardCharsets.UTF_8), marks);
+    }
+
+    private void writeSlot(int slot, long id, byte[] nameBytes, double marks) throws IOException {
+        ByteBuffer segment = segmentFor(slot, false);
+        int base = offsetInSegment(slot);
+        segment.putLong(base + ID_OFFSET, id);
+        segment.putDouble(base + MARKS_OFFSET, marks);
+        segment.put(base + NAME_LENGTH_OFFSET, (byte) nameBytes.length);
+        segment.put(base + NAME_OFFSET, nameBytes);
+        segment.put(base + FLAG_OFFSET, LIVE);
+    }
+
+    private boolean isLive(int slot) throws IOException {
+        return segmentFor(slot, false).get(offsetInSegment(slot) + FLAG_OFFSET) == LIVE;
+    }
+
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Name is longer than " + MAX_NAME_BYTES + " bytes.");
+        }
+        return bytes;
+    }
+
+    private static int offsetInSegment(int slot) {
+        return (slot & (SLOTS_PER_SEGMENT - 1)) * RECORD_SIZE;
+    }
+
+    // Maps segments on demand. The last segment starts small and is remapped larger as the file grows.
+    private MappedByteBuffer segmentFor(int slot, boolean grow) throws IOException {
+        int index = slot >>> SEGMENT_SHIFT;
+        int slotsNeeded = (slot & (SLOTS_PER_SEGMENT - 1)) + 1;
+        while (segments.size() <= index) {
+            int segmentIndex = segments.size();
+            int slots = segmentIndex < index ? SLOTS_PER_SEGMENT
+                    : Math.max(INITIAL_SEGMENT_SLOTS, Math.min(SLOTS_PER_SEGMENT, slotCount - (segmentIndex << SEGMENT_SHIFT)));
+            segments.add(mapSegment(segmentIndex, slots));
+        }
+        MappedByteBuffer segment = segments.get(index);
+        if (segment.capacity() < slotsNeeded * RECORD_SIZE) {
+            if (!grow) {
+                throw new IOException("Slot " + slot + " is beyond the end of the store.");
+            }
+            int slots = Math.min(SLOTS_PER_SEGMENT, Math.max(slotsNeeded, segment.capacity() / RECORD_SIZE * 2));
+            segment = mapSegment(index, slots);
+            segments.set(index, segment);
+        }
+        return segment;
+    }
+
+    private MappedByteBuffer mapSegment(int index, int slots) throws IOException {
+        long position = HEADER_SIZE + ((long) index << SEGMENT_SHIFT) * RECORD_SIZE;
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, (long) slots * RECORD_SIZE);
+    }
+
+    private void ensureIndex() throws IOException {
+        if (indexKeys != null) return;
+
+        int capacity = Integer.highestOneBit(Math.max(16, slotCount) * 2) * 2;
+        indexKeys = new long[capacity];
+        indexSlots = new int[capacity];
+        freeSlots = new int[16];
+        freeCount = 0;
+        int live = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            ByteBuffer segment = segmentFor(slot, false);
+            int base = offsetInSegment(slot);
+            if (segment.get(base + FLAG_OFFSET) == LIVE) {
+                indexPut(segment.getLong(base + ID_OFFSET), slot);
+                live++;
+            } else {
+                pushFree(slot);
+            }
+        }
+        liveCount = live;
+    }
+
+    private void pushFree(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private int findSlot(long id) {
+        int mask = indexKeys.length - 1;
+        for (int i = hash(id) & mask; indexSlots[i] != 0; i = (i + 1) & mask) {
+            if (indexKeys[i] == id) {
+                return indexSlots[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void indexPut(long id, int slot) {
+        if ((liveCount + 1) * 2 > indexKeys.length) {
+            long[] oldKeys = indexKeys;
+            int[] oldSlots = indexSlots;
+            indexKeys = new long[oldKeys.length * 2];
+            indexSlots = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldSlots[i] != 0) {
+                    insert(oldKeys[i], oldSlots[i]);
+                }
+            }
+        }
+        insert(id, slot + 1);
+    }
+
+    private void insert(long id, int slotPlusOne) {
+        int mask = indexKeys.length - 1;
+        int i = hash(id) & mask;
+        while (indexSlots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        indexKeys[i] = id;
+        indexSlots[i] = slotPlusOne;
+    }
+
+    // Backward shift deletion keeps linear probing chains intact without tombstones
+    private void indexRemove(long id) {
+        int mask = indexKeys.length - 1;
+        int hole = hash(id) & mask;
+        while (indexKeys[hole] != id || indexSlots[hole] == 0) {
+            hole = (hole + 1) & mask;
+        }
+        indexSlots[hole] = 0;
+        for (int next = (hole + 1) & mask; indexSlots[next] != 0; next = (next + 1) & mask) {
+            int home = hash(indexKeys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                indexKeys[hole] = indexKeys[next];
+                indexSlots[hole] = indexSlots[next];
+                indexSlots[next] = 0;
+                hole = next;
+            }
+        }
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
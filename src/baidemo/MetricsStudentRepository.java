@@ -0,0 +1,182 @@
+package Baidemo;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Metrics Student Repository
+ *
+ * Wraps a repository and times every add, edit, delete, lookup, search and sort into StudentMetrics,
+ * failed ones included. It goes outermost in the chain, so the times are what the menus see: cache
+ * hits, index lookups and journal writes alike. Callers leave it out when metrics are off.
+ */
+public class MetricsStudentRepository extends ForwardingStudentRepository {
+
+    private final StudentMetrics metrics = StudentMetrics.get();
+
+    public MetricsStudentRepository(StudentRepository delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public boolean add(StudentRecord student) {
+        long start = metrics.start();
+        try {
+            return delegate.add(student);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.ADD, start);
+        }
+    }
+
+    @Override
+    public int addAll(Iterable<StudentRecord> students) {
+        long start = metrics.start();
+        try {
+            return delegate.addAll(students);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.ADD, start);
+        }
+    }
+
+    @Override
+    public StudentRecord get(String id) {
+        long start = metrics.start();
+        try {
+            return delegate.get(id);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.GET, start);
+        }
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        long start = metrics.start();
+        try {
+            return delegate.update(id, name, marks);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.EDIT, start);
+        }
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        long start = metrics.start();
+        try {
+            return delegate.delete(id);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.DELETE, start);
+        }
+    }
+
+    @Override
+    public List<StudentRecord> findByName(String name) {
+        long start = metrics.start();
+        try {
+            return delegate.findByName(name);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.SEARCH, start);
+        }
+    }
+
+    @Override
+    public List<StudentRecord> findByNamePrefix(String prefix, int limit) {
+        long start = metrics.start();
+        try {
+            return delegate.findByNamePrefix(prefix, limit);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.SEARCH, start);
+        }
+    }
+
+    @Override
+    public List<StudentRecord> findByNameFuzzy(String name, int maxDistance, int limit) {
+        long start = metrics.start();
+        try {
+            return delegate.findByNameFuzzy(name, maxDistance, limit);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.SEARCH, start);
+        }
+    }
+
+    @Override
+    public List<StudentRecord> findByIdRange(String fromId, String toId) {
+        long start = metrics.start();
+        try {
+            return delegate.findByIdRange(fromId, toId);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.SEARCH, start);
+        }
+    }
+
+    @Override
+    public List<StudentRecord> topByMarks(int k) {
+        long start = metrics.start();
+        try {
+            return delegate.topByMarks(k);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.SEARCH, start);
+        }
+    }
+
+    @Override
+    public List<StudentRecord> bottomByMarks(int k) {
+        long start = metrics.start();
+        try {
+            return delegate.bottomByMarks(k);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.SEARCH, start);
+        }
+    }
+
+    @Override
+    public StudentRecord atMarksPercentile(double percent) {
+        long start = metrics.start();
+        try {
+            return delegate.atMarksPercentile(percent);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.SEARCH, start);
+        }
+    }
+
+    @Override
+    public List<StudentRecord> sortedBy(StudentOrder order) {
+        long start = metrics.start();
+        try {
+            return delegate.sortedBy(order);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.SORT, start);
+        }
+    }
+
+    @Override
+    public void sort(SortEngine.Algorithm algorithm, Comparator<? super StudentRecord> order,
+            ToLongFunction<? super StudentRecord> radixKey) {
+        long start = metrics.start();
+        try {
+            delegate.sort(algorithm, order, radixKey);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.SORT, start);
+        }
+    }
+
+    @Override
+    public void sortById(SortEngine.Algorithm algorithm) {
+        long start = metrics.start();
+        try {
+            delegate.sortById(algorithm);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.SORT, start);
+        }
+    }
+
+    @Override
+    public void sortByMarks(SortEngine.Algorithm algorithm) {
+        long start = metrics.start();
+        try {
+            delegate.sortByMarks(algorithm);
+        } finally {
+            metrics.stop(StudentMetrics.Operation.SORT, start);
+        }
+    }
+}
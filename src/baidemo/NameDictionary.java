@@ -0,0 +1,127 @@
+package Baidemo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Name Dictionary
+ *
+ * Stores each distinct student name once, as UTF-8 bytes packed into a single byte arena, and hands
+ * out small int ids for them. Records keep the int id instead of their own String, so repeated names
+ * cost 4 bytes per record and equality checks compare ids instead of characters.
+ * Entries are never removed; a name that is no longer used simply stays in the arena.
+ */
+public final class NameDictionary {
+
+    private byte[] arena = new byte[1024];
+    private int arenaSize;
+    private int[] offsets = new int[64];
+    private int[] lengths = new int[64];
+    private int count;
+    // Open addressing table of name id + 1, 0 marks an empty slot
+    private int[] table = new int[128];
+
+    /**
+     * Returns the id of the name, adding it to the dictionary if it is not there yet.
+     */
+    public int intern(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int mask = table.length - 1;
+        int slot = hash(bytes) & mask;
+        while (table[slot] != 0) {
+            int id = table[slot] - 1;
+            if (matches(id, bytes)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = count++;
+        if (id == offsets.length) {
+            offsets = Arrays.copyOf(offsets, id * 2);
+            lengths = Arrays.copyOf(lengths, id * 2);
+        }
+        if (arenaSize + bytes.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + bytes.length));
+        }
+        System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+        offsets[id] = arenaSize;
+        lengths[id] = bytes.length;
+        arenaSize += bytes.length;
+        table[slot] = id + 1;
+
+        if (count * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of the name, or -1 if no record has ever used it.
+     */
+    public int find(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int mask = table.length - 1;
+        int slot = hash(bytes) & mask;
+        while (table[slot] != 0) {
+            int id = table[slot] - 1;
+            if (matches(id, bytes)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Marks every dictionary id whose name equals the given one ignoring case. The scan is over
+     * distinct names only, which is far smaller than the roster on real data.
+     */
+    public boolean[] matchIgnoreCase(String name) {
+        boolean[] matches = new boolean[count];
+        for (int id = 0; id < count; id++) {
+            matches[id] = get(id).equalsIgnoreCase(name);
+        }
+        return matches;
+    }
+
+    public String get(int id) {
+        return new String(arena, offsets[id], lengths[id], StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private boolean matches(int id, byte[] bytes) {
+        int offset = offsets[id];
+        return lengths[id] == bytes.length
+                && Arrays.equals(arena, offset, offset + bytes.length, bytes, 0, bytes.length);
+    }
+
+    private void rehash(int capacity) {
+        int[] newTable = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < count; id++) {
+            int slot = hash(arena, offsets[id], lengths[id]) & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = id + 1;
+        }
+        table = newTable;
+    }
+
+    private static int hash(byte[] bytes) {
+        return hash(bytes, 0, bytes.length);
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int h = 1;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + bytes[i];
+        }
+        // Spread the low bits, the table is indexed with a mask
+        return h ^ (h >>> 16);
+    }
+}
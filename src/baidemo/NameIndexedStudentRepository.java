@@ -0,0 +1,169 @@
+package Baidemo;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Name Indexed Student Repository
+ *
+ * Wraps a repository with a StudentNameIndex, so exact, prefix and typo-tolerant name searches look
+ * up the index instead of scanning every record. The index is built once from the students already
+ * stored and then follows every add, edit and delete made through this wrapper; an edit takes the
+ * old name out of the index under the same stripe lock that applies the change.
+ *
+ * When the backend keeps the records it is given, students whose names are written the same way are
+ * given one shared String from the index, so a roster full of repeated names holds each once. The
+ * sharing lasts as long as some student has the name, so names edited or deleted away are not kept.
+ */
+public class NameIndexedStudentRepository extends ForwardingStudentRepository {
+
+    private final StudentNameIndex index;
+    private final IdStripes stripes = new IdStripes(64);
+
+    public NameIndexedStudentRepository(StudentRepository delegate) {
+        super(delegate);
+        index = new StudentNameIndex(delegate.storesRecords());
+        // The wrapper is built before the repository is handed to other threads, so these names can still be swapped
+        delegate.forEach(student -> share(student, index.add(student.getName(), student.getId())));
+    }
+
+    @Override
+    public boolean add(StudentRecord student) {
+        ReentrantLock lock = stripes.forId(student.getId());
+        lock.lock();
+        try {
+            // Shared before the backend stores it, since records must not change once other threads can see them
+            share(student, index.shared(student.getName()));
+            if (!delegate.add(student)) {
+                return false;
+            }
+            index.add(student.getName(), student.getId());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int addAll(Iterable<StudentRecord> students) {
+        stripes.lockAll();
+        try {
+            Map<String, String> names = new HashMap<>();
+            for (StudentRecord student : students) {
+                share(student, names.computeIfAbsent(student.getName(), index::shared));
+            }
+            // As in StatisticsStudentRepository, the backend decides which students were new
+            int added = delegate.addAll(students);
+            if (added > 0) {
+                index.clear();
+                delegate.forEach(student -> index.add(student.getName(), student.getId()));
+            }
+            return added;
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        ReentrantLock lock = stripes.forId(id);
+        lock.lock();
+        try {
+            StudentRecord student = delegate.get(id);
+            if (student == null) {
+                return false;
+            }
+            // Records may be updated in place, so keep the old name before the change
+            String oldName = student.getName();
+            if (!delegate.update(id, index.shared(name), marks)) {
+                return false;
+            }
+            if (!oldName.equals(name)) {
+                index.remove(oldName, id);
+                index.add(name, id);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        ReentrantLock lock = stripes.forId(id);
+        lock.lock();
+        try {
+            StudentRecord student = delegate.delete(id);
+            if (student != null) {
+                index.remove(student.getName(), id);
+            }
+            return student;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Swaps the student's name for the index's String with the same text.
+     */
+    private static void share(StudentRecord student, String name) {
+        if (student.getName() != name) {
+            student.setName(name);
+        }
+    }
+
+    @Override
+    public List<StudentRecord> findByName(String name) {
+        List<StudentRecord> found = new ArrayList<>();
+        collect(index.exact(name), found, Integer.MAX_VALUE);
+        return found;
+    }
+
+    @Override
+    public List<StudentRecord> findByNamePrefix(String prefix, int limit) {
+        return collectGroups(index.prefix(prefix, limit), limit);
+    }
+
+    @Override
+    public List<StudentRecord> findByNameFuzzy(String name, int maxDistance, int limit) {
+        return collectGroups(index.fuzzy(name, maxDistance, limit), limit);
+    }
+
+    @Override
+    public Set<Index> indexes() {
+        Set<Index> indexes = EnumSet.of(Index.NAME);
+        indexes.addAll(delegate.indexes());
+        return indexes;
+    }
+
+    private List<StudentRecord> collectGroups(List<List<String>> groups, int limit) {
+        List<StudentRecord> found = new ArrayList<>();
+        for (List<String> ids : groups) {
+            if (found.size() >= limit) {
+                break;
+            }
+            collect(ids, found, limit);
+        }
+        return found;
+    }
+
+    /**
+     * Adds the students with these IDs in ID order, skipping any deleted since the index was read.
+     */
+    private void collect(List<String> ids, List<StudentRecord> found, int limit) {
+        List<StudentRecord> group = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            StudentRecord student = delegate.get(id);
+            if (student != null) {
+                group.add(student);
+            }
+        }
+        group.sort(StudentRecord.ID_ORDER);
+        found.addAll(group.subList(0, Math.min(group.size(), limit - found.size())));
+    }
+}
@@ -0,0 +1,461 @@
+package Baidemo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sort Engine
+ *
+ * Sorting algorithms shared by both student management systems. Records are always sorted
+ * inside a plain array, so list based stores pay one O(n) copy instead of O(n) per element access.
+ * Merge sort and TimSort are stable, which lets several sorts be chained for multi-key ordering.
+ * Radix sort orders records by a numeric key in a fixed number of linear passes. Parallel merge sort
+ * is the same stable merge sort split over the fork-join pool for large rosters.
+ *
+ * For queries that need only part of the order, BoundedHeap keeps the k smallest items seen in
+ * O(n log k) and select finds the k-th smallest in expected O(n), without sorting everything.
+ */
+public final class SortEngine {
+
+    public enum Algorithm {
+        MERGE("Merge Sort"),
+        TIM("TimSort"),
+        RADIX("Radix Sort"),
+        PARALLEL("Parallel Merge Sort"),
+        BUBBLE("Bubble Sort"),
+        SELECTION("Selection Sort");
+
+        private final String label;
+
+        Algorithm(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    // Below this many items a range is sorted or merged on the current thread
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX_BUCKETS = 1 << RADIX_BITS;
+
+    private SortEngine() {
+    }
+
+    /**
+     * Sorts a list in place by copying it into an array, sorting the array and writing it back.
+     */
+    public static <T> void sort(List<T> list, Algorithm algorithm, Comparator<? super T> order, ToLongFunction<? super T> radixKey) {
+        @SuppressWarnings("unchecked")
+        T[] items = (T[]) list.toArray();
+        sort(items, 0, items.length, algorithm, order, radixKey);
+        ListIterator<T> it = list.listIterator();
+        for (T item : items) {
+            it.next();
+            it.set(item);
+        }
+    }
+
+    /**
+     * Sorts items[from, to) with the chosen algorithm. The comparator is used by the comparison sorts,
+     * the radix key by radix sort; both must describe the same order.
+     */
+    public static <T> void sort(T[] items, int from, int to, Algorithm algorithm, Comparator<? super T> order, ToLongFunction<? super T> radixKey) {
+        switch (algorithm) {
+            case MERGE: mergeSort(items, from, to, order); break;
+            case TIM: Arrays.sort(items, from, to, order); break;
+            case PARALLEL: parallelMergeSort(items, from, to, order); break;
+            case RADIX:
+                if (radixKey == null) {
+                    throw new IllegalArgumentException("Radix sort needs a numeric sort key.");
+                }
+                radixSort(items, from, to, radixKey);
+                break;
+            case BUBBLE: bubbleSort(items, from, to, order); break;
+            case SELECTION: selectionSort(items, from, to, order); break;
+            default: throw new IllegalArgumentException("Unknown sorting algorithm: " + algorithm);
+        }
+    }
+
+    public static <T> void mergeSort(T[] items, int from, int to, Comparator<? super T> order) {
+        T[] buffer = Arrays.copyOfRange(items, from, to);
+        mergeSort(buffer, items, from, to, from, order);
+    }
+
+    // Sorts dest[from, to) using src as scratch space; src[i - offset] mirrors dest[i] on entry.
+    private static <T> void mergeSort(T[] src, T[] dest, int from, int to, int offset, Comparator<? super T> order) {
+        int length = to - from;
+        if (length < INSERTION_SORT_THRESHOLD) {
+            insertionSort(dest, from, to, order);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(dest, src, from - offset, mid - offset, -offset, order);
+        mergeSort(dest, src, mid - offset, to - offset, -offset, order);
+
+        int lo = from - offset, midSrc = mid - offset, hi = to - offset;
+        // Already ordered halves only need copying
+        if (order.compare(src[midSrc - 1], src[midSrc]) <= 0) {
+            System.arraycopy(src, lo, dest, from, length);
+            return;
+        }
+        for (int i = from, p = lo, q = midSrc; i < to; i++) {
+            if (q >= hi || (p < midSrc && order.compare(src[p], src[q]) <= 0)) {
+                dest[i] = src[p++];
+            } else {
+                dest[i] = src[q++];
+            }
+        }
+    }
+
+    /**
+     * Stable merge sort on the common fork-join pool. Ranges shorter than PARALLEL_THRESHOLD are left to
+     * the sequential merge sort, so small rosters never pay for task scheduling.
+     */
+    public static <T> void parallelMergeSort(T[] items, int from, int to, Comparator<? super T> order) {
+        parallelMergeSort(items, from, to, order, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Stable merge sort on the given pool. Both halves of every range are sorted as separate tasks, and
+     * the merges above PARALLEL_THRESHOLD are split too, so no single merge of the whole roster is
+     * left to one thread at the end.
+     */
+    public static <T> void parallelMergeSort(T[] items, int from, int to, Comparator<? super T> order, ForkJoinPool pool) {
+        if (to - from < PARALLEL_THRESHOLD) {
+            mergeSort(items, from, to, order);
+            return;
+        }
+        T[] buffer = Arrays.copyOfRange(items, from, to);
+        pool.invoke(new MergeSortTask<>(buffer, items, from, to, from, order));
+    }
+
+    // Fork-join version of mergeSort(src, dest, from, to, offset, order), with the same array roles
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private static final class MergeSortTask<T> extends RecursiveAction {
+        private final T[] src;
+        private final T[] dest;
+        private final int from;
+        private final int to;
+        private final int offset;
+        private final Comparator<? super T> order;
+
+        MergeSortTask(T[] src, T[] dest, int from, int to, int offset, Comparator<? super T> order) {
+            this.src = src;
+            this.dest = dest;
+            this.from = from;
+            this.to = to;
+            this.offset = offset;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < PARALLEL_THRESHOLD) {
+                mergeSort(src, dest, from, to, offset, order);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MergeSortTask<>(dest, src, from - offset, mid - offset, -offset, order),
+                    new MergeSortTask<>(dest, src, mid - offset, to - offset, -offset, order));
+            int lo = from - offset, midSrc = mid - offset, hi = to - offset;
+            if (order.compare(src[midSrc - 1], src[midSrc]) <= 0) {
+                System.arraycopy(src, lo, dest, from, to - from);
+                return;
+            }
+            new MergeTask<>(src, lo, midSrc, midSrc, hi, dest, from, order).compute();
+        }
+    }
+
+    /**
+     * Merges the sorted runs src[aFrom, aTo) and src[bFrom, bTo) into dest from position out, taking
+     * from the first run on ties. Long merges split around the middle item of the longer run and its
+     * binary-searched place in the other, and merge both sides in parallel.
+     */
+    @SuppressWarnings("serial")
+    private static final class MergeTask<T> extends RecursiveAction {
+        private final T[] src;
+        private final int aFrom;
+        private final int aTo;
+        private final int bFrom;
+        private final int bTo;
+        private final T[] dest;
+        private final int out;
+        private final Comparator<? super T> order;
+
+        MergeTask(T[] src, int aFrom, int aTo, int bFrom, int bTo, T[] dest, int out, Comparator<? super T> order) {
+            this.src = src;
+            this.aFrom = aFrom;
+            this.aTo = aTo;
+            this.bFrom = bFrom;
+            this.bTo = bTo;
+            this.dest = dest;
+            this.out = out;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            int aLength = aTo - aFrom;
+            int bLength = bTo - bFrom;
+            if (aLength + bLength < PARALLEL_THRESHOLD) {
+                for (int i = out, p = aFrom, q = bFrom, end = out + aLength + bLength; i < end; i++) {
+                    if (q >= bTo || (p < aTo && order.compare(src[p], src[q]) <= 0)) {
+                        dest[i] = src[p++];
+                    } else {
+                        dest[i] = src[q++];
+                    }
+                }
+                return;
+            }
+            int aMid;
+            int bMid;
+            if (aLength >= bLength) {
+                // The first run's middle item goes after every item of the second run that is smaller
+                aMid = (aFrom + aTo) >>> 1;
+                bMid = search(bFrom, bTo, src[aMid], false);
+                dest[out + (aMid - aFrom) + (bMid - bFrom)] = src[aMid];
+                invokeAll(new MergeTask<>(src, aFrom, aMid, bFrom, bMid, dest, out, order),
+                        new MergeTask<>(src, aMid + 1, aTo, bMid, bTo, dest, out + (aMid - aFrom) + (bMid - bFrom) + 1, order));
+            } else {
+                // The second run's middle item goes after every item of the first run that is not larger
+                bMid = (bFrom + bTo) >>> 1;
+                aMid = search(aFrom, aTo, src[bMid], true);
+                dest[out + (aMid - aFrom) + (bMid - bFrom)] = src[bMid];
+                invokeAll(new MergeTask<>(src, aFrom, aMid, bFrom, bMid, dest, out, order),
+                        new MergeTask<>(src, aMid, aTo, bMid + 1, bTo, dest, out + (aMid - aFrom) + (bMid - bFrom) + 1, order));
+            }
+        }
+
+        // First position in src[lo, hi) whose item is larger than key, or not smaller if !afterEqual
+        private int search(int lo, int hi, T key, boolean afterEqual) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = order.compare(src[mid], key);
+                if (cmp < 0 || (afterEqual && cmp == 0)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    private static <T> void insertionSort(T[] items, int from, int to, Comparator<? super T> order) {
+        for (int i = from + 1; i < to; i++) {
+            T current = items[i];
+            int j = i - 1;
+            while (j >= from && order.compare(items[j], current) > 0) {
+                items[j + 1] = items[j];
+                j--;
+            }
+            items[j + 1] = current;
+        }
+    }
+
+    /**
+     * Stable LSD radix sort on a signed 64-bit key, one byte per pass. Passes where every key
+     * shares the same byte are skipped, so small ranges such as 0-10 marks cost only a few passes.
+     */
+    public static <T> void radixSort(T[] items, int from, int to, ToLongFunction<? super T> key) {
+        int n = to - from;
+        if (n < 2) return;
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = key.applyAsLong(items[from + i]);
+        }
+        int[] order = radixOrder(keys, n);
+        Object[] values = Arrays.copyOfRange(items, from, to, Object[].class);
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked")
+            T value = (T) values[order[i]];
+            items[from + i] = value;
+        }
+    }
+
+    /**
+     * Returns the positions of keys[0, n) in stable ascending key order, without moving the keys.
+     * Used by the primitive column stores to sort a permutation instead of objects.
+     */
+    public static int[] radixOrder(long[] keys, int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        if (n < 2) return order;
+
+        long[] sortKeys = new long[n];
+        for (int i = 0; i < n; i++) {
+            // Flip the sign bit so negative keys order before positive ones as unsigned values
+            sortKeys[i] = keys[i] ^ Long.MIN_VALUE;
+        }
+        long[] keyBuffer = new long[n];
+        int[] orderBuffer = new int[n];
+        int[] counts = new int[RADIX_BUCKETS];
+
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                counts[(int) (sortKeys[i] >>> shift) & (RADIX_BUCKETS - 1)]++;
+            }
+            if (counts[(int) (sortKeys[0] >>> shift) & (RADIX_BUCKETS - 1)] == n) {
+                continue;
+            }
+            for (int b = 0, sum = 0; b < RADIX_BUCKETS; b++) {
+                int c = counts[b];
+                counts[b] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < n; i++) {
+                int pos = counts[(int) (sortKeys[i] >>> shift) & (RADIX_BUCKETS - 1)]++;
+                keyBuffer[pos] = sortKeys[i];
+                orderBuffer[pos] = order[i];
+            }
+            long[] swapKeys = sortKeys;
+            sortKeys = keyBuffer;
+            keyBuffer = swapKeys;
+            int[] swapOrder = order;
+            order = orderBuffer;
+            orderBuffer = swapOrder;
+        }
+        return order;
+    }
+
+    public static <T> void bubbleSort(T[] items, int from, int to, Comparator<? super T> order) {
+        boolean swapped;
+        int end = to;
+        do {
+            swapped = false;
+            for (int i = from; i < end - 1; i++) {
+                if (order.compare(items[i], items[i + 1]) > 0) {
+                    T temp = items[i];
+                    items[i] = items[i + 1];
+                    items[i + 1] = temp;
+                    swapped = true;
+                }
+            }
+            end--;
+        } while (swapped);
+    }
+
+    public static <T> void selectionSort(T[] items, int from, int to, Comparator<? super T> order) {
+        for (int i = from; i < to - 1; i++) {
+            int minIndex = i;
+            for (int j = i + 1; j < to; j++) {
+                if (order.compare(items[j], items[minIndex]) < 0) {
+                    minIndex = j;
+                }
+            }
+            if (minIndex != i) {
+                T temp = items[i];
+                items[i] = items[minIndex];
+                items[minIndex] = temp;
+            }
+        }
+    }
+
+    /**
+     * Keeps the k smallest items it is given, so a single pass over n items finds them in O(n log k).
+     */
+    public static final class BoundedHeap<T> implements Consumer<T> {
+        private final int k;
+        private final Comparator<? super T> order;
+        private final PriorityQueue<T> largestFirst;
+
+        public BoundedHeap(int k, Comparator<? super T> order) {
+            if (k < 0) {
+                throw new IllegalArgumentException("k must not be negative: " + k);
+            }
+            this.k = k;
+            this.order = order;
+            this.largestFirst = new PriorityQueue<>(Math.max(1, Math.min(k, 1 << 16)), order.reversed());
+        }
+
+        @Override
+        public void accept(T item) {
+            if (largestFirst.size() < k) {
+                largestFirst.add(item);
+            } else if (k > 0 && order.compare(item, largestFirst.peek()) < 0) {
+                largestFirst.poll();
+                largestFirst.add(item);
+            }
+        }
+
+        /**
+         * The kept items, smallest first.
+         */
+        public List<T> toSortedList() {
+            List<T> items = new ArrayList<>(largestFirst);
+            items.sort(order);
+            return items;
+        }
+    }
+
+    /**
+     * Quickselect: rearranges items[from, to) so that items[k] holds the item a full sort would put
+     * there, with no larger item before it and no smaller one after. Expected O(n) with random pivots;
+     * each pass splits three ways, around the items equal to the pivot, so many ties stay linear.
+     */
+    public static <T> T select(T[] items, int from, int to, int k, Comparator<? super T> order) {
+        if (k < from || k >= to) {
+            throw new IndexOutOfBoundsException("k " + k + " outside [" + from + ", " + to + ")");
+        }
+        int lo = from;
+        int hi = to - 1;
+        while (lo < hi) {
+            T pivot = items[lo + ThreadLocalRandom.current().nextInt(hi - lo + 1)];
+            // items[lo, lt) < pivot, items[lt, i) == pivot, items(gt, hi] > pivot
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i <= gt) {
+                int cmp = order.compare(items[i], pivot);
+                if (cmp < 0) {
+                    swap(items, lt++, i++);
+                } else if (cmp > 0) {
+                    swap(items, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (k < lt) {
+                hi = lt - 1;
+            } else if (k > gt) {
+                lo = gt + 1;
+            } else {
+                break;
+            }
+        }
+        return items[k];
+    }
+
+    private static <T> void swap(T[] items, int i, int j) {
+        T temp = items[i];
+        items[i] = items[j];
+        items[j] = temp;
+    }
+
+    /**
+     * Maps a double to a long whose signed order matches the numeric order of the double,
+     * so marks can be used as a radix key.
+     */
+    public static long sortableKey(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,94 @@
+package Baidemo;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Statistics Student Repository
+ *
+ * Wraps a repository and keeps a StudentStatistics in step with it, so rank counts and the marks
+ * histogram are ready without scanning the roster. The statistics are built once from the students
+ * already stored; after that every successful add, edit and delete through this wrapper adjusts them.
+ * An edit reads the old marks and applies the change under the same stripe lock, so concurrent edits
+ * of one student cannot count the same marks twice.
+ */
+public class StatisticsStudentRepository extends ForwardingStudentRepository {
+
+    private final StudentStatistics statistics = new StudentStatistics();
+    private final IdStripes stripes = new IdStripes(64);
+
+    public StatisticsStudentRepository(StudentRepository delegate) {
+        super(delegate);
+        delegate.forEach(student -> statistics.add(student.getMarks()));
+    }
+
+    public StudentStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public boolean add(StudentRecord student) {
+        ReentrantLock lock = stripes.forId(student.getId());
+        lock.lock();
+        try {
+            if (!delegate.add(student)) {
+                return false;
+            }
+            statistics.add(student.getMarks());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int addAll(Iterable<StudentRecord> students) {
+        stripes.lockAll();
+        try {
+            // The backend's bulk path may skip IDs that are taken, so rebuild instead of guessing which
+            int added = delegate.addAll(students);
+            if (added > 0) {
+                statistics.clear();
+                delegate.forEach(student -> statistics.add(student.getMarks()));
+            }
+            return added;
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    public boolean update(String id, String name, double marks) {
+        ReentrantLock lock = stripes.forId(id);
+        lock.lock();
+        try {
+            StudentRecord student = delegate.get(id);
+            if (student == null) {
+                return false;
+            }
+            // Records may be updated in place, so keep the old marks before the change
+            double oldMarks = student.getMarks();
+            if (!delegate.update(id, name, marks)) {
+                return false;
+            }
+            statistics.replace(oldMarks, marks);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StudentRecord delete(String id) {
+        ReentrantLock lock = stripes.forId(id);
+        lock.lock();
+        try {
+            StudentRecord student = delegate.delete(id);
+            if (student != null) {
+                statistics.remove(student.getMarks());
+            }
+            return student;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package Baidemo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Student Bulk IO
+ *
+ * Bulk import and export for nightly registrar syncs. An import parses the whole input first, then
+ * validates it in parallel batches of BATCH_SIZE records, drops IDs already stored or repeated in the
+ * input (the first occurrence wins) and hands the rest to the repository in one addAll call, which a
+ * JournaledStudentRepository commits with a single snapshot. An export writes CSV straight from the
+ * repository without building a list first.
+ *
+ * From the command line, against students.txt and the journal:
+ * java Baidemo.StudentManagementSystem --import <file|-> [--array-rules]
+ * java Baidemo.StudentManagementSystem --export <file|->
+ * where - is standard input or output.
+ */
+public final class StudentBulkIO {
+
+    public static final int BATCH_SIZE = 1 << 16;
+    private static final int WRITE_BUFFER_CHARS = 1 << 16;
+
+    private StudentBulkIO() {
+    }
+
+    /**
+     * Outcome of a bulk import.
+     */
+    public static final class ImportResult {
+        private final int imported;
+        private final int invalid;
+        private final int duplicates;
+        private final long malformedLines;
+
+        ImportResult(int imported, int invalid, int duplicates, long malformedLines) {
+            this.imported = imported;
+            this.invalid = invalid;
+            this.duplicates = duplicates;
+            this.malformedLines = malformedLines;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getInvalid() {
+            return invalid;
+        }
+
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        public long getMalformedLines() {
+            return malformedLines;
+        }
+
+        @Override
+        public String toString() {
+            return "Imported " + imported + " students; skipped " + invalid + " invalid, " + duplicates
+                    + " duplicate and " + malformedLines + " malformed lines.";
+        }
+    }
+
+    /**
+     * Imports a CSV or snapshot file.
+     */
+    public static ImportResult importFile(StudentRepository repository, Path file, StudentValidator validator) throws IOException {
+        if (StudentSnapshot.isSnapshot(file)) {
+            return importRecords(repository, StudentSnapshot.read(file, StudentRecord::new), 0, validator);
+        }
+        StudentCsvLoader.Result<StudentRecord> result = StudentCsvLoader.load(file, StudentRecord::new);
+        return importRecords(repository, result.getRecords(), result.getMalformedLines(), validator);
+    }
+
+    /**
+     * Imports CSV from a stream such as standard input.
+     */
+    public static ImportResult importStream(StudentRepository repository, InputStream in, StudentValidator validator) throws IOException {
+        StudentCsvLoader.Result<StudentRecord> result = StudentCsvLoader.load(in, StudentRecord::new);
+        return importRecords(repository, result.getRecords(), result.getMalformedLines(), validator);
+    }
+
+    static ImportResult importRecords(StudentRepository repository, List<StudentRecord> records, long malformed,
+            StudentValidator validator) {
+        int n = records.size();
+        boolean[] valid = new boolean[n];
+        IntStream.range(0, (n + BATCH_SIZE - 1) / BATCH_SIZE).parallel().forEach(batch -> {
+            int end = Math.min(n, (batch + 1) * BATCH_SIZE);
+            for (int i = batch * BATCH_SIZE; i < end; i++) {
+                valid[i] = validator.isValid(records.get(i));
+            }
+        });
+
+        Set<String> seen = new HashSet<>(Math.max(16, n * 4 / 3 + 1));
+        List<StudentRecord> accepted = new ArrayList<>(n);
+        int invalid = 0;
+        int duplicates = 0;
+        for (int i = 0; i < n; i++) {
+            StudentRecord student = records.get(i);
+            if (!valid[i]) {
+                invalid++;
+            } else if (!seen.add(student.getId()) || repository.get(student.getId()) != null) {
+                duplicates++;
+            } else {
+                accepted.add(student);
+            }
+        }
+        int imported = repository.addAll(accepted);
+        // Anything addAll refused was added by another writer since the check above
+        return new ImportResult(imported, invalid, duplicates + accepted.size() - imported, malformed);
+    }
+
+    /**
+     * Streams the roster as "id,name,marks" lines and returns the number of students written.
+     */
+    public static long exportCsv(StudentRepository repository, Writer out) throws IOException {
+        long[] count = {0};
+        try {
+            repository.forEach(writeCsvLine(out, count));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        return count[0];
+    }
+
+    public static long exportCsv(StudentRepository repository, Path file) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8),
+                WRITE_BUFFER_CHARS)) {
+            return exportCsv(repository, out);
+        }
+    }
+
+    private static Consumer<StudentRecord> writeCsvLine(Writer out, long[] count) {
+        return student -> {
+            try {
+                out.write(student.getId());
+                out.write(',');
+                out.write(StudentCsvLoader.escape(student.getName()));
+                out.write(',');
+                out.write(Double.toString(student.getMarks()));
+                out.write('\n');
+                count[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !(args[0].equals("--import") || args[0].equals("--export"))) {
+            System.out.println("Usage: --import <file|-> [--array-rules] | --export <file|->");
+            return;
+        }
+        Path snapshot = Paths.get("students.txt");
+        StudentRepository backend = StudentRepositories.fromProperty("indexed");
+        StudentRepository repository = backend;
+        if (!backend.isPersistent()) {
+            StudentRepositories.load(backend, snapshot, id -> true);
+            repository = JournaledStudentRepository.open(backend, snapshot, Paths.get("students.journal"));
+        }
+        try {
+            if (args[0].equals("--import")) {
+                StudentValidator validator = args.length > 2 && args[2].equals("--array-rules")
+                        ? StudentValidator.ARRAY_RULES : StudentValidator.NUMERIC_IDS;
+                ImportResult result = args[1].equals("-")
+                        ? importStream(repository, System.in, validator)
+                        : importFile(repository, Paths.get(args[1]), validator);
+                System.out.println(result);
+            } else if (args[1].equals("-")) {
+                // Standard output stays open; exportCsv only flushes the writer
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+                exportCsv(repository, out);
+            } else {
+                long written = exportCsv(repository, Paths.get(args[1]));
+                System.out.println("Exported " + written + " students to " + args[1] + ".");
+            }
+        } finally {
+            repository.close();
+        }
+    }
+}
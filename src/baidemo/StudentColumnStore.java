@@ -0,0 +1,220 @@
+package Baidemo;
+
+import java.util.Arrays;
+
+/**
+ * Student Column Store
+ *
+ * Keeps student data column by column in primitive arrays: numeric IDs in a long[], marks in a double[]
+ * and names as int references into a NameDictionary. There is no object per student, so a record costs
+ * about 30 bytes including the ID index, and marks sorting or ranking scans one contiguous double[].
+ *
+ * IDs are stored by their numeric key only, so the store is meant for numeric IDs as used by
+ * StudentManagementSystem. Deleting moves the last row into the freed one, so row order is not stable.
+ */
+public class StudentColumnStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private double[] marks = new double[INITIAL_CAPACITY];
+    private int[] nameRefs = new int[INITIAL_CAPACITY];
+    private int size;
+    private final NameDictionary names = new NameDictionary();
+
+    // Open addressing ID index of row + 1, 0 marks an empty slot
+    private int[] idTable = new int[INITIAL_CAPACITY * 2];
+
+    /**
+     * Adds a student, returning false if the ID is already present.
+     */
+    public boolean add(long id, String name, double studentMarks) {
+        if (findRow(id) >= 0) {
+            return false;
+        }
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            marks = Arrays.copyOf(marks, capacity);
+            nameRefs = Arrays.copyOf(nameRefs, capacity);
+        }
+        int row = size++;
+        ids[row] = id;
+        marks[row] = studentMarks;
+        nameRefs[row] = names.intern(name);
+        if (size * 2 > idTable.length) {
+            rehash(idTable.length * 2);
+        } else {
+            idTable[freeSlot(id)] = row + 1;
+        }
+        return true;
+    }
+
+    public boolean update(long id, String name, double studentMarks) {
+        int row = findRow(id);
+        if (row < 0) {
+            return false;
+        }
+        marks[row] = studentMarks;
+        nameRefs[row] = names.intern(name);
+        return true;
+    }
+
+    public boolean delete(long id) {
+        int slot = slotOf(id);
+        if (slot < 0) {
+            return false;
+        }
+        int row = idTable[slot] - 1;
+        removeSlot(slot);
+
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            marks[row] = marks[last];
+            nameRefs[row] = nameRefs[last];
+            idTable[slotOf(ids[row])] = row + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the row holding the ID, or -1 if it is not stored.
+     */
+    public int findRow(long id) {
+        int slot = slotOf(id);
+        return slot < 0 ? -1 : idTable[slot] - 1;
+    }
+
+    /**
+     * Returns the rows whose name equals the given one ignoring case. Names are matched once per distinct
+     * name in the dictionary; the roster scan itself only compares int references.
+     */
+    public int[] findRowsByName(String name) {
+        boolean[] matching = names.matchIgnoreCase(name);
+        int[] rows = new int[8];
+        int found = 0;
+        for (int row = 0; row < size; row++) {
+            if (matching[nameRefs[row]]) {
+                if (found == rows.length) {
+                    rows = Arrays.copyOf(rows, found * 2);
+                }
+                rows[found++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, found);
+    }
+
+    public int[] rowsOrderedById() {
+        return SortEngine.radixOrder(ids, size);
+    }
+
+    public int[] rowsOrderedByMarks() {
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = SortEngine.sortableKey(marks[row]);
+        }
+        return SortEngine.radixOrder(keys, size);
+    }
+
+    /**
+     * Rearranges the rows so that row i holds what was row order[i] before, e.g. with the result of
+     * rowsOrderedByMarks.
+     */
+    public void reorder(int[] order) {
+        long[] newIds = new long[ids.length];
+        double[] newMarks = new double[marks.length];
+        int[] newNameRefs = new int[nameRefs.length];
+        for (int row = 0; row < size; row++) {
+            newIds[row] = ids[order[row]];
+            newMarks[row] = marks[order[row]];
+            newNameRefs[row] = nameRefs[order[row]];
+        }
+        ids = newIds;
+        marks = newMarks;
+        nameRefs = newNameRefs;
+        rehash(idTable.length);
+    }
+
+    /**
+     * Compares two rows in StudentRecord.LEADERBOARD_ORDER (highest marks first, ties by ID) from the
+     * columns alone, so ranking queries need not build a record per row.
+     */
+    public int compareLeaderboard(int a, int b) {
+        int byMarks = Double.compare(marks[b], marks[a]);
+        return byMarks != 0 ? byMarks : Long.compare(ids[a], ids[b]);
+    }
+
+    public long getId(int row) {
+        return ids[row];
+    }
+
+    public String getName(int row) {
+        return names.get(nameRefs[row]);
+    }
+
+    public double getMarks(int row) {
+        return marks[row];
+    }
+
+    public StudentRecord toRecord(int row) {
+        return new StudentRecord(Long.toString(ids[row]), getName(row), marks[row]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public NameDictionary getNames() {
+        return names;
+    }
+
+    private int slotOf(long id) {
+        int mask = idTable.length - 1;
+        int slot = hash(id) & mask;
+        while (idTable[slot] != 0) {
+            if (ids[idTable[slot] - 1] == id) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int freeSlot(long id) {
+        int mask = idTable.length - 1;
+        int slot = hash(id) & mask;
+        while (idTable[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Backward shift deletion keeps linear probing chains intact without tombstones
+    private void removeSlot(int slot) {
+        int mask = idTable.length - 1;
+        idTable[slot] = 0;
+        int next = (slot + 1) & mask;
+        while (idTable[next] != 0) {
+            int home = hash(ids[idTable[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                idTable[slot] = idTable[next];
+                idTable[next] = 0;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        idTable = new int[capacity];
+        for (int row = 0; row < size; row++) {
+            idTable[freeSlot(ids[row])] = row + 1;
+        }
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
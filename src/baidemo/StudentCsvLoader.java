@@ -0,0 +1,358 @@
+package Baidemo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Student CSV Loader
+ *
+ * Loads "id,name,marks" files by splitting them into byte ranges on line boundaries and parsing the
+ * ranges in parallel straight from memory mapped bytes, without readLine or regex based splitting.
+ * Names may be quoted ("Nguyen, Van A", with "" for a quote). Lines written before quoting existed
+ * that have commas in an unquoted name are still accepted: the first field is the ID, the last
+ * field is the marks and everything in between is the name. Lines that cannot be parsed are counted
+ * instead of aborting the load. Quoted fields cannot span lines.
+ */
+public final class StudentCsvLoader {
+
+    /**
+     * Creates the caller's record type from one parsed line.
+     */
+    public interface RowFactory<T> {
+        T create(String id, String name, double marks);
+    }
+
+    public static final class Result<T> {
+        private final List<T> records;
+        private final long malformedLines;
+        private final long bytesRead;
+
+        Result(List<T> records, long malformedLines, long bytesRead) {
+            this.records = records;
+            this.malformedLines = malformedLines;
+            this.bytesRead = bytesRead;
+        }
+
+        /** Parsed records, in file order. */
+        public List<T> getRecords() {
+            return records;
+        }
+
+        public long getMalformedLines() {
+            return malformedLines;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+    }
+
+    private static final long MAX_CHUNK_BYTES = 64L * 1024 * 1024;
+    private static final long MIN_CHUNK_BYTES = 1024L * 1024;
+    private static final int MAX_FIELDS = 64;
+    private static final int STREAM_BLOCK_BYTES = 1 << 20;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private StudentCsvLoader() {
+    }
+
+    public static <T> Result<T> load(Path file, RowFactory<T> factory) throws IOException {
+        return load(file, factory, 0);
+    }
+
+    /**
+     * Loads with chunks of about chunkBytes, or sized from the file and core count when 0. Package
+     * private so tests can place chunk boundaries inside small files.
+     */
+    static <T> Result<T> load(Path file, RowFactory<T> factory, long chunkBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = chunkBounds(channel, size, chunkBytes > 0 ? chunkBytes : defaultChunkBytes(size));
+            List<Chunk<T>> chunks = IntStream.range(0, bounds.length - 1).parallel()
+                    .mapToObj(i -> parseChunk(channel, bounds[i], bounds[i + 1], factory))
+                    .toList();
+
+            int total = 0;
+            long malformed = 0;
+            for (Chunk<T> chunk : chunks) {
+                if (chunk.error != null) {
+                    throw chunk.error;
+                }
+                total += chunk.records.size();
+                malformed += chunk.malformed;
+            }
+            List<T> records = new ArrayList<>(total);
+            for (Chunk<T> chunk : chunks) {
+                records.addAll(chunk.records);
+            }
+            return new Result<>(records, malformed, size);
+        }
+    }
+
+    /**
+     * Parses CSV from a stream, e.g. standard input, in blocks of STREAM_BLOCK_BYTES. Lines are parsed
+     * as each block arrives, so only the records and one block are held in memory.
+     */
+    public static <T> Result<T> load(InputStream in, RowFactory<T> factory) throws IOException {
+        byte[] block = new byte[STREAM_BLOCK_BYTES];
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        Chunk<T> chunk = new Chunk<>();
+        LineState state = new LineState();
+        long bytesRead = 0;
+        int filled = 0;
+        while (true) {
+            int read = in.read(block, filled, block.length - filled);
+            if (read < 0) {
+                parseLines(buffer, filled, chunk, state, factory);
+                return new Result<>(chunk.records, chunk.malformed, bytesRead);
+            }
+            bytesRead += read;
+            filled += read;
+            // Only the bytes just read can hold a newline; earlier complete lines are already parsed
+            int lastNewline = filled - 1;
+            while (lastNewline >= filled - read && block[lastNewline] != '\n') {
+                lastNewline--;
+            }
+            if (lastNewline < filled - read) {
+                if (filled == block.length) {
+                    // A single line longer than the block; grow it
+                    block = Arrays.copyOf(block, block.length * 2);
+                    buffer = ByteBuffer.wrap(block);
+                }
+                continue;
+            }
+            parseLines(buffer, lastNewline + 1, chunk, state, factory);
+            filled -= lastNewline + 1;
+            System.arraycopy(block, lastNewline + 1, block, 0, filled);
+        }
+    }
+
+    /**
+     * Quotes a name for writing when it contains a comma or quote, so it loads back intact. Lines are
+     * split on raw line breaks, so a line break in the name (StudentValidator rejects them, but an old
+     * binary snapshot may hold one) is written as a space rather than producing a malformed line.
+     */
+    public static String escape(String field) {
+        boolean needsQuotes = false;
+        boolean lineBreaks = false;
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            needsQuotes |= c == ',' || c == '"';
+            lineBreaks |= c == '\n' || c == '\r';
+        }
+        if (lineBreaks) {
+            field = field.replace('\n', ' ').replace('\r', ' ');
+        }
+        return needsQuotes ? '"' + field.replace("\"", "\"\"") + '"' : field;
+    }
+
+    private static final class Chunk<T> {
+        final List<T> records = new ArrayList<>();
+        long malformed;
+        IOException error;
+    }
+
+    private static long defaultChunkBytes(long size) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, size / cores + 1));
+    }
+
+    // Chunk boundaries are moved forward to the start of the next line
+    private static long[] chunkBounds(FileChannel channel, long size, long chunkBytes) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = chunkBytes;
+        while (position < size) {
+            long lineStart = -1;
+            long scan = position;
+            while (lineStart < 0 && scan < size) {
+                probe.clear();
+                int read = channel.read(probe, scan);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineStart = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += read;
+            }
+            if (lineStart < 0 || lineStart >= size) break;
+            bounds.add(lineStart);
+            position = lineStart + chunkBytes;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static <T> Chunk<T> parseChunk(FileChannel channel, long start, long end, RowFactory<T> factory) {
+        Chunk<T> chunk = new Chunk<>();
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            parseLines(buffer, buffer.limit(), chunk, new LineState(), factory);
+        } catch (IOException e) {
+            chunk.error = e;
+        }
+        return chunk;
+    }
+
+    // Field position scratch arrays, one set per parsing thread
+    private static final class LineState {
+        final int[] fieldStarts = new int[MAX_FIELDS];
+        final int[] fieldEnds = new int[MAX_FIELDS];
+        final boolean[] quoted = new boolean[MAX_FIELDS];
+    }
+
+    /**
+     * Parses every line in buffer[0, limit), where limit is just past a newline or at the end of input.
+     */
+    private static <T> void parseLines(ByteBuffer buffer, int limit, Chunk<T> chunk, LineState state, RowFactory<T> factory) {
+        int pos = 0;
+        while (pos < limit) {
+            int lineEnd = pos;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd;
+            if (contentEnd > pos && buffer.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            if (contentEnd > pos) {
+                T row = parseLine(buffer, pos, contentEnd, state.fieldStarts, state.fieldEnds, state.quoted, factory);
+                if (row != null) {
+                    chunk.records.add(row);
+                } else {
+                    chunk.malformed++;
+                }
+            }
+            pos = lineEnd + 1;
+        }
+    }
+
+    private static <T> T parseLine(ByteBuffer buffer, int from, int to, int[] fieldStarts, int[] fieldEnds,
+            boolean[] quoted, RowFactory<T> factory) {
+        int fields = 0;
+        int pos = from;
+        while (true) {
+            if (fields == MAX_FIELDS) return null;
+            if (pos < to && buffer.get(pos) == '"') {
+                int close = pos + 1;
+                while (true) {
+                    if (close >= to) return null; // Unterminated quote
+                    if (buffer.get(close) == '"') {
+                        if (close + 1 < to && buffer.get(close + 1) == '"') {
+                            close += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    close++;
+                }
+                fieldStarts[fields] = pos + 1;
+                fieldEnds[fields] = close;
+                quoted[fields++] = true;
+                pos = close + 1;
+                if (pos < to && buffer.get(pos) != ',') return null;
+            } else {
+                int comma = pos;
+                while (comma < to && buffer.get(comma) != ',') {
+                    comma++;
+                }
+                fieldStarts[fields] = pos;
+                fieldEnds[fields] = comma;
+                quoted[fields++] = false;
+                pos = comma;
+            }
+            if (pos >= to) break;
+            pos++; // Skip the comma
+        }
+        if (fields < 3) return null;
+
+        int last = fields - 1;
+        String id = decode(buffer, fieldStarts[0], fieldEnds[0], quoted[0]);
+        if (id.isEmpty()) return null;
+        double marks = parseMarks(buffer, fieldStarts[last], fieldEnds[last]);
+        if (Double.isNaN(marks)) return null;
+        String name;
+        if (fields == 3) {
+            name = decode(buffer, fieldStarts[1], fieldEnds[1], quoted[1]);
+        } else {
+            StringBuilder joined = new StringBuilder();
+            for (int f = 1; f < last; f++) {
+                if (f > 1) joined.append(',');
+                joined.append(decode(buffer, fieldStarts[f], fieldEnds[f], quoted[f]));
+            }
+            name = joined.toString();
+        }
+        return factory.create(id, name, marks);
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to, boolean quoted) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        return quoted ? text.replace("\"\"", "\"") : text;
+    }
+
+    /**
+     * Parses plain decimals such as 7, 7.25 or -0.5 directly from the bytes; anything else
+     * (exponents, very long digit strings) goes through Double.parseDouble. Returns NaN when invalid.
+     */
+    private static double parseMarks(ByteBuffer buffer, int from, int to) {
+        int pos = from;
+        boolean negative = false;
+        if (pos < to && (buffer.get(pos) == '-' || buffer.get(pos) == '+')) {
+            negative = buffer.get(pos) == '-';
+            pos++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        boolean simple = pos < to;
+        for (; pos < to; pos++) {
+            byte b = buffer.get(pos);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (seenPoint) fractionDigits++;
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                simple = false;
+                break;
+            }
+        }
+        // Exact when the mantissa and the power of ten are both representable doubles
+        if (simple && digits > 0 && digits <= 15 && fractionDigits < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        try {
+            byte[] bytes = new byte[to - from];
+            buffer.get(from, bytes);
+            return Double.parseDouble(new String(bytes, StandardCharsets.ISO_8859_1).trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
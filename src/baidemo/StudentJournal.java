@@ -0,0 +1,331 @@
+package Baidemo;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Student Journal
+ *
+ * Append-only write-ahead log of add, edit and delete operations. Every change is appended as it
+ * happens and a background thread fsyncs the file every few milliseconds, so one fsync covers a group
+ * of changes and a crash loses at most that window instead of the whole session.
+ *
+ * Entries are framed as length, body and CRC32. Replay stops at the first torn or corrupt entry and
+ * cuts the file there. Compaction moves the current log aside, writes a fresh snapshot in the
+ * background and then deletes the old log; if it is interrupted the old log is replayed on the next
+ * start. Replaying a log over a snapshot that already contains it gives the same result, because
+ * every entry carries the full record.
+ */
+public class StudentJournal implements Closeable {
+
+    /**
+     * Receives replayed operations.
+     */
+    public interface Listener {
+        void onAdd(String id, String name, double marks);
+
+        void onEdit(String id, String name, double marks);
+
+        void onDelete(String id);
+    }
+
+    /**
+     * Writes a snapshot of the roster to the given file. Called on the compaction thread, so it must
+     * only touch data copied before compaction started.
+     */
+    public interface SnapshotWriter {
+        void write(Path target) throws IOException;
+    }
+
+    public static final long GROUP_COMMIT_MILLIS = 20;
+    public static final int COMPACTION_THRESHOLD = 10_000;
+
+    private static final byte ADD = 1;
+    private static final byte EDIT = 2;
+    private static final byte DELETE = 3;
+    private static final int MAX_ENTRY_BYTES = 1 << 20;
+
+    private final Path journalFile;
+    private final Path rotatedFile;
+    private FileChannel channel;
+    private boolean dirty;
+    private long syncs;
+    private int entriesSinceCompaction;
+    private Future<?> compaction;
+
+    private final ScheduledExecutorService syncer = Executors.newSingleThreadScheduledExecutor(daemon("journal-sync"));
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(daemon("journal-compaction"));
+
+    private StudentJournal(Path journalFile) throws IOException {
+        this.journalFile = journalFile;
+        this.rotatedFile = journalFile.resolveSibling(journalFile.getFileName() + ".old");
+        this.channel = openChannel(journalFile);
+        syncer.scheduleWithFixedDelay(this::syncQuietly, GROUP_COMMIT_MILLIS, GROUP_COMMIT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public static StudentJournal open(Path journalFile) throws IOException {
+        return new StudentJournal(journalFile);
+    }
+
+    /**
+     * Replays a log left by an unfinished compaction, then the current log. Returns the number of entries applied.
+     */
+    public synchronized int replay(Listener listener) throws IOException {
+        int applied = 0;
+        if (Files.exists(rotatedFile)) {
+            applied += replayFile(rotatedFile, listener);
+        }
+        applied += replayFile(journalFile, listener);
+        entriesSinceCompaction = applied;
+        return applied;
+    }
+
+    public void logAdd(String id, String name, double marks) throws IOException {
+        append(ADD, id, name, marks);
+    }
+
+    public void logEdit(String id, String name, double marks) throws IOException {
+        append(EDIT, id, name, marks);
+    }
+
+    public void logDelete(String id) throws IOException {
+        append(DELETE, id, "", 0);
+    }
+
+    public synchronized boolean needsCompaction() {
+        return entriesSinceCompaction >= COMPACTION_THRESHOLD && (compaction == null || compaction.isDone());
+    }
+
+    /**
+     * Starts a new log and writes the snapshot in the background. The old log is deleted once the
+     * snapshot has replaced the target file. Does nothing while a previous compaction is still running.
+     */
+    public synchronized void compactInBackground(Path snapshotFile, SnapshotWriter writer) throws IOException {
+        if (compaction != null && !compaction.isDone()) return;
+        rotate();
+        compaction = compactor.submit(() -> {
+            try {
+                writeSnapshot(snapshotFile, writer);
+            } catch (IOException e) {
+                System.out.println("Error compacting journal: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Writes the snapshot on the calling thread and empties the log, for example on exit.
+     */
+    public void compactNow(Path snapshotFile, SnapshotWriter writer) throws IOException {
+        Future<?> running;
+        synchronized (this) {
+            running = compaction;
+        }
+        awaitQuietly(running);
+        synchronized (this) {
+            rotate();
+        }
+        writeSnapshot(snapshotFile, writer);
+    }
+
+    /**
+     * Forces pending entries to disk now instead of waiting for the next group commit.
+     */
+    public synchronized void sync() throws IOException {
+        if (dirty) {
+            channel.force(false);
+            dirty = false;
+            syncs++;
+        }
+    }
+
+    /**
+     * Number of fsyncs issued by sync so far, so tests can check that appends are grouped.
+     */
+    synchronized long syncCount() {
+        return syncs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncer.shutdown();
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            sync();
+            channel.close();
+        }
+    }
+
+    private void append(byte op, String id, String name, double marks) throws IOException {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int bodyLength = 1 + 2 + idBytes.length + 2 + nameBytes.length + 8;
+        if (bodyLength > MAX_ENTRY_BYTES || idBytes.length > Short.MAX_VALUE || nameBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal entry is too large.");
+        }
+        ByteBuffer frame = ByteBuffer.allocate(4 + bodyLength + 4);
+        frame.putInt(bodyLength);
+        frame.put(op);
+        frame.putShort((short) idBytes.length).put(idBytes);
+        frame.putShort((short) nameBytes.length).put(nameBytes);
+        frame.putDouble(marks);
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), 4, bodyLength);
+        frame.putInt((int) crc.getValue());
+        frame.flip();
+
+        synchronized (this) {
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+            dirty = true;
+            entriesSinceCompaction++;
+        }
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().written(frame.limit());
+        }
+    }
+
+    private int replayFile(Path file, Listener listener) throws IOException {
+        if (!Files.exists(file)) return 0;
+
+        int applied = 0;
+        long validBytes = 0;
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1 << 16))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int bodyLength;
+                byte[] body;
+                try {
+                    bodyLength = in.readInt();
+                    if (bodyLength <= 0 || bodyLength > MAX_ENTRY_BYTES) break;
+                    body = new byte[bodyLength];
+                    in.readFully(body);
+                    crc.reset();
+                    crc.update(body);
+                    if (in.readInt() != (int) crc.getValue()) break;
+                } catch (EOFException e) {
+                    break; // Torn final entry
+                }
+                apply(ByteBuffer.wrap(body), listener);
+                applied++;
+                validBytes += 4 + bodyLength + 4;
+            }
+        }
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().read(validBytes);
+        }
+        if (validBytes < Files.size(file)) {
+            System.out.println("Journal " + file.getFileName() + " has a damaged tail; discarding "
+                    + (Files.size(file) - validBytes) + " bytes.");
+            try (FileChannel truncate = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                truncate.truncate(validBytes);
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(ByteBuffer body, Listener listener) {
+        byte op = body.get();
+        String id = readString(body);
+        String name = readString(body);
+        double marks = body.getDouble();
+        switch (op) {
+            case ADD: listener.onAdd(id, name, marks); break;
+            case EDIT: listener.onEdit(id, name, marks); break;
+            case DELETE: listener.onDelete(id); break;
+            default: System.out.println("Skipping unknown journal entry type " + op + ".");
+        }
+    }
+
+    private static String readString(ByteBuffer body) {
+        byte[] bytes = new byte[body.getShort()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Caller holds the lock. An existing rotated log still awaiting its snapshot is kept by appending to it.
+    private void rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        if (Files.exists(rotatedFile)) {
+            try (FileChannel rotated = FileChannel.open(rotatedFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                 FileChannel current = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+                current.transferTo(0, current.size(), rotated);
+                rotated.force(false);
+            }
+            Files.delete(journalFile);
+        } else {
+            Files.move(journalFile, rotatedFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+        channel = openChannel(journalFile);
+        dirty = false;
+        entriesSinceCompaction = 0;
+    }
+
+    private void writeSnapshot(Path snapshotFile, SnapshotWriter writer) throws IOException {
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        writer.write(temp);
+        try (FileChannel written = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            written.force(true);
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        synchronized (this) {
+            Files.deleteIfExists(rotatedFile);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            System.out.println("Error syncing journal: " + e.getMessage());
+        }
+    }
+
+    private static void awaitQuietly(Future<?> task) {
+        if (task == null) return;
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Reported by the compaction task itself
+        }
+    }
+
+    private static FileChannel openChannel(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
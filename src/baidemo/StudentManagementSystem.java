@@ -1,29 +1,67 @@
 package Baidemo;
 
 import java.io.*;
-import java.util.LinkedList;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import javax.management.JMException;
 
 /**
  * Student Management System
- * 
+ *
  * This system allows for the management of student records including adding, editing, deleting, sorting, and searching for students.
  * It also handles file operations to save and load student data.
- * 
+ * The records themselves live in a StudentRepository; this class only reads input and prints results.
+ *
  * @author phung
  */
 public class StudentManagementSystem {
 
-    private static LinkedList<StudentRecord> students = new LinkedList<>();
+    // Indexed by default; -Dstudents.backend selects another backend
+    private static StudentRepository students = new IndexedStudentRepository();
+    // Every change is appended to the journal as it happens, so a crash does not lose the session
+    private static JournaledStudentRepository journal;
+    // Rank counts and marks histogram, kept up to date by every change
+    private static StudentStatistics statistics;
+    // Search results and sorted views, dropped by every change
+    private static CachingStudentRepository cache;
     private static Scanner scanner = new Scanner(System.in);
     private static final String FILE_NAME = "students.txt";
+    private static final String JOURNAL_FILE_NAME = "students.journal";
+    private static final StudentValidator VALIDATOR = StudentValidator.NUMERIC_IDS;
+    private static final Pattern CHOICE_PATTERN = Pattern.compile("\\d{1,9}");
+    private static final int NAME_SEARCH_LIMIT = 100;
+    private static final int PAGE_SIZE = 20;
+    private static final StudentPrinter PRINTER = new StudentPrinter(System.out);
+    private static final StudentMetrics METRICS = StudentMetrics.get();
+    private static final String ID_ERROR = "Invalid ID. Please enter a numeric ID of up to 18 digits.";
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--server")) {
+            try {
+                StudentServer.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch (IOException e) {
+                System.out.println("Error starting server: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length > 0 && (args[0].equals("--import") || args[0].equals("--export"))) {
+            try {
+                StudentBulkIO.main(args);
+            } catch (IOException e) {
+                System.out.println("Error in bulk " + args[0].substring(2) + ": " + e.getMessage());
+            }
+            return;
+        }
         try {
             loadStudentsFromFile();
         } catch (IOException e) {
             System.out.println("Error loading students from file: " + e.getMessage());
         }
+        publishMetrics();
 
         int choice;
         do {
@@ -33,11 +71,13 @@ public class StudentManagementSystem {
             System.out.println("3. Delete Student");
             System.out.println("4. Sort Students by ID");
             System.out.println("5. Sort Students by Marks");
-            System.out.println("6. Search Student");
-            System.out.println("7. Display All Students");
-            System.out.println("8. Exit");
+            System.out.println("6. Sort Students by Several Keys");
+            System.out.println("7. Search Student");
+            System.out.println("8. Display All Students");
+            System.out.println("9. Show Statistics");
+            System.out.println("10. Exit");
 
-            choice = getValidChoice(1, 8);
+            choice = getValidChoice(1, 10);
 
             try {
                 switch (choice) {
@@ -46,25 +86,29 @@ public class StudentManagementSystem {
                     case 3: deleteStudent(); break;
                     case 4: sortStudentsById(); break;
                     case 5: sortStudentsByMarks(); break;
-                    case 6: searchStudent(); break;
-                    case 7: displayAllStudents(); break;
-                    case 8: 
+                    case 6: sortStudentsByKeys(); break;
+                    case 7: searchStudent(); break;
+                    case 8: displayAllStudents(); break;
+                    case 9: showStatistics(); break;
+                    case 10:
                         saveStudentsToFile();
+                        closeRepository();
                         System.out.println("Exiting the system.");
                         break;
                     default: System.out.println("Invalid choice! Please try again.");
                 }
+                compactJournalIfNeeded();
             } catch (Exception e) {
                 System.out.println("Error: " + e.getMessage());
             }
-        } while (choice != 8);
+        } while (choice != 10);
     }
 
     private static int getValidChoice(int min, int max) {
         while (true) {
             System.out.print("Enter your choice: ");
             String input = scanner.nextLine();
-            if (input.matches("\\d+")) {
+            if (CHOICE_PATTERN.matcher(input).matches()) {
                 int choice = Integer.parseInt(input);
                 if (choice >= min && choice <= max) {
                     return choice;
@@ -79,12 +123,19 @@ public class StudentManagementSystem {
             String id, name;
             double marks = -1;
 
-            id = getValidString("Enter Student ID: ", "\\d+", "Invalid ID. Please enter a numeric ID.");
-            name = getValidString("Enter Student Name: ", "[^\\d]+", "Invalid name. Please enter a name without numbers.");
+            id = getValidString("Enter Student ID: ", VALIDATOR::isValidId, ID_ERROR);
+            if (students.get(id) != null) {
+                System.out.println("A student with ID " + id + " already exists.");
+                return;
+            }
+            name = getValidString("Enter Student Name: ", VALIDATOR::isValidName, "Invalid name. Please enter a name without numbers or tabs.");
             marks = getValidDouble("Enter Student Marks: ", "Invalid marks. Please enter a valid number.");
 
-            students.add(new StudentRecord(id, name, marks));
-            System.out.println("Student added successfully.");
+            if (students.add(new StudentRecord(id, name, marks))) {
+                System.out.println("Student added successfully.");
+            } else {
+                System.out.println("A student with ID " + id + " already exists.");
+            }
         } catch (Exception e) {
             System.out.println("Error adding student: " + e.getMessage());
         }
@@ -92,19 +143,19 @@ public class StudentManagementSystem {
 
     private static void editStudent() {
         try {
-            String id = getValidString("Enter Student ID to edit: ", "\\d+", "Invalid ID. Please enter a numeric ID.");
-            for (StudentRecord student : students) {
-                if (student.getId().equals(id)) {
-                    String name = getValidString("Enter new name: ", "[^\\d]+", "Invalid name. Please enter a name without numbers.");
-                    double marks = getValidDouble("Enter new marks: ", "Invalid marks. Please enter a valid number.");
-
-                    student.setName(name);
-                    student.setMarks(marks);
-                    System.out.println("Student updated successfully.");
-                    return;
-                }
+            String id = getValidString("Enter Student ID to edit: ", VALIDATOR::isValidId, ID_ERROR);
+            if (students.get(id) == null) {
+                System.out.println("Student not found.");
+                return;
+            }
+            String name = getValidString("Enter new name: ", VALIDATOR::isValidName, "Invalid name. Please enter a name without numbers or tabs.");
+            double marks = getValidDouble("Enter new marks: ", "Invalid marks. Please enter a valid number.");
+
+            if (students.update(id, name, marks)) {
+                System.out.println("Student updated successfully.");
+            } else {
+                System.out.println("Student not found.");
             }
-            System.out.println("Student not found.");
         } catch (Exception e) {
             System.out.println("Error editing student: " + e.getMessage());
         }
@@ -112,9 +163,12 @@ public class StudentManagementSystem {
 
     private static void deleteStudent() {
         try {
-            String id = getValidString("Enter Student ID to delete: ", "\\d+", "Invalid ID. Please enter a numeric ID.");
-            boolean removed = students.removeIf(student -> student.getId().equals(id));
-            System.out.println(removed ? "Student deleted successfully." : "Student not found.");
+            String id = getValidString("Enter Student ID to delete: ", VALIDATOR::isValidId, ID_ERROR);
+            if (students.delete(id) == null) {
+                System.out.println("Student not found.");
+                return;
+            }
+            System.out.println("Student deleted successfully.");
         } catch (Exception e) {
             System.out.println("Error deleting student: " + e.getMessage());
         }
@@ -126,195 +180,322 @@ public class StudentManagementSystem {
                 System.out.println("No students to sort.");
                 return;
             }
-            bubbleSortById();
-            System.out.println("Students sorted by ID.");
+            SortEngine.Algorithm algorithm = chooseSortAlgorithm(SortEngine.Algorithm.MERGE, SortEngine.Algorithm.TIM,
+                    SortEngine.Algorithm.RADIX, SortEngine.Algorithm.PARALLEL, SortEngine.Algorithm.BUBBLE,
+                    SortEngine.Algorithm.SELECTION);
+            students.sortById(algorithm);
+            System.out.println("Students sorted by ID using " + algorithm + ".");
         } catch (Exception e) {
             System.out.println("Error sorting students: " + e.getMessage());
         }
     }
 
-    private static void bubbleSortById() {
-        if (students.isEmpty()) return;
-
-        boolean swapped;
-        do {
-            swapped = false;
-            for (int i = 0; i < students.size() - 1; i++) {
-                StudentRecord current = students.get(i);
-                StudentRecord next = students.get(i + 1);
-                if (current.getId().compareTo(next.getId()) > 0) {
-                    students.set(i, next);
-                    students.set(i + 1, current);
-                    swapped = true;
-                }
+    private static void sortStudentsByMarks() {
+        try {
+            if (students.isEmpty()) {
+                System.out.println("No students to sort.");
+                return;
             }
-        } while (swapped);
+            SortEngine.Algorithm algorithm = chooseSortAlgorithm(SortEngine.Algorithm.MERGE, SortEngine.Algorithm.TIM,
+                    SortEngine.Algorithm.RADIX, SortEngine.Algorithm.PARALLEL, SortEngine.Algorithm.BUBBLE,
+                    SortEngine.Algorithm.SELECTION);
+            students.sortByMarks(algorithm);
+            System.out.println("Students sorted by Marks using " + algorithm + ".");
+        } catch (Exception e) {
+            System.out.println("Error sorting students: " + e.getMessage());
+        }
     }
 
-    private static void sortStudentsByMarks() {
-     try {
-         if (students.isEmpty()) {
-             System.out.println("No students to sort.");
-             return;
-         }
-         selectionSortByMarks();
-         System.out.println("Students sorted by Marks.");
-     } catch (Exception e) {
-         System.out.println("Error sorting students: " + e.getMessage());
-     }
- }
-
-    private static void selectionSortByMarks() {
-        int n = students.size();
-        for (int i = 0; i < n - 1; i++) {
-            // Find the index of the minimum element in the unsorted portion
-            int minIndex = i;
-            for (int j = i + 1; j < n; j++) {
-                if (students.get(j).getMarks() < students.get(minIndex).getMarks()) {
-                    minIndex = j;
-                }
-            }
-            // Swap the found minimum element with the first element of the unsorted portion
-            if (minIndex != i) {
-                StudentRecord temp = students.get(i);
-                students.set(i, students.get(minIndex));
-                students.set(minIndex, temp);
+    private static void sortStudentsByKeys() {
+        try {
+            if (students.isEmpty()) {
+                System.out.println("No students to sort.");
+                return;
             }
+            System.out.print("Enter sort keys, e.g. rank DESC, marks DESC, name, id: ");
+            StudentOrder order = StudentOrder.parse(scanner.nextLine());
+            order.sort(students);
+            System.out.println("Students sorted by " + order + ".");
+        } catch (Exception e) {
+            System.out.println("Error sorting students: " + e.getMessage());
         }
     }
 
+    private static SortEngine.Algorithm chooseSortAlgorithm(SortEngine.Algorithm... algorithms) {
+        System.out.println("Choose sorting method:");
+        for (int i = 0; i < algorithms.length; i++) {
+            System.out.println((i + 1) + ". " + algorithms[i]);
+        }
+        return algorithms[getValidChoice(1, algorithms.length) - 1];
+    }
 
     private static void searchStudent() {
-        System.out.println("1. Linear Search");
-        System.out.println("2. Binary Search (ID only, sorted list required)");
+        System.out.println("1. Index Search");
+        System.out.println("2. Binary Search (ID only)");
         int searchMethod = getValidChoice(1, 2);
 
-        System.out.print("Enter search criterion (1 for ID, 2 for Name): ");
+        System.out.print("Enter search criterion (1 for ID, 2 for Name, 3 for ID Range, 4 for Top Marks, "
+                + "5 for Bottom Marks, 6 for Marks Percentile, 7 for Query): ");
         String criterion = scanner.nextLine();
 
         if (criterion.equals("1")) {
             System.out.print("Enter Student ID to search: ");
             String id = scanner.nextLine();
             if (searchMethod == 1) {
-                linearSearchById(id);
+                indexSearchById(id);
             } else if (searchMethod == 2) {
-                if (isSortedById()) {
-                    binarySearchById(id);
-                } else {
-                    System.out.println("Records are not sorted. Sort them first.");
-                }
+                binarySearchById(id);
             } else {
                 System.out.println("Invalid choice.");
             }
         } else if (criterion.equals("2")) {
+            System.out.println("1. Exact Name");
+            System.out.println("2. Name Starting With");
+            System.out.println("3. Similar Names (allows typos)");
+            int nameMethod = getValidChoice(1, 3);
             System.out.print("Enter Student Name to search: ");
             String name = scanner.nextLine();
-            linearSearchByName(name);
+            searchByName(name, nameMethod);
+        } else if (criterion.equals("3")) {
+            String fromId = getValidString("Enter first Student ID: ", VALIDATOR::isValidId, ID_ERROR);
+            String toId = getValidString("Enter last Student ID: ", VALIDATOR::isValidId, ID_ERROR);
+            rangeSearchById(fromId, toId);
+        } else if (criterion.equals("4") || criterion.equals("5")) {
+            int count = Integer.parseInt(getValidString("How many students? ", CHOICE_PATTERN.asMatchPredicate(),
+                    "Invalid number. Please enter a whole number."));
+            boolean top = criterion.equals("4");
+            printRanking(top ? students.topByMarks(count) : students.bottomByMarks(count));
+        } else if (criterion.equals("6")) {
+            double percent = getValidDouble("Enter percentile (0 to 100): ", "Invalid percentile. Please enter a number.");
+            if (!(percent >= 0 && percent <= 100)) {
+                System.out.println("Percentile must be between 0 and 100.");
+                return;
+            }
+            StudentRecord student = students.atMarksPercentile(percent);
+            System.out.println(student != null ? student : "No students found.");
+        } else if (criterion.equals("7")) {
+            System.out.print("Enter query, e.g. marks >= 7.5 AND name startsWith Nguyen ORDER BY marks DESC LIMIT 50: ");
+            queryStudents(scanner.nextLine());
         } else {
-            System.out.println("Invalid search criterion. Please enter 1 or 2.");
+            System.out.println("Invalid search criterion. Please enter a number from 1 to 7.");
         }
     }
 
-    private static void linearSearchById(String id) {
-        for (StudentRecord student : students) {
-            if (student.getId().equals(id)) {
-                System.out.println(student);
-                return;
-            }
-        }
-        System.out.println("Student not found.");
+    private static void indexSearchById(String id) {
+        StudentRecord student = students.get(id);
+        System.out.println(student != null ? student : "Student not found.");
     }
 
     private static void binarySearchById(String id) {
-        int left = 0, right = students.size() - 1;
-        while (left <= right) {
-            int mid = left + (right - left) / 2;
-            StudentRecord student = students.get(mid);
-            int cmp = student.getId().compareTo(id);
-            if (cmp == 0) {
-                System.out.println(student);
-                return;
-            } else if (cmp < 0) {
-                left = mid + 1;
-            } else {
-                right = mid - 1;
-            }
+        // A one-ID range query; the indexed backend answers it with an O(log n) tree descent
+        List<StudentRecord> found = students.findByIdRange(id, id);
+        System.out.println(!found.isEmpty() ? found.get(0) : "Student not found.");
+    }
+
+    private static void rangeSearchById(String fromId, String toId) {
+        if (StudentRecord.parseIdKey(fromId) > StudentRecord.parseIdKey(toId)) {
+            System.out.println("First ID must not be greater than last ID.");
+            return;
         }
-        System.out.println("Student not found.");
+        List<StudentRecord> range = students.findByIdRange(fromId, toId);
+        if (range.isEmpty()) {
+            System.out.println("No students found in this ID range.");
+            return;
+        }
+        for (StudentRecord student : range) {
+            System.out.println(student);
+        }
+        System.out.println(range.size() + " students found.");
     }
 
-    private static void linearSearchByName(String name) {
-        boolean found = false;
-        for (StudentRecord student : students) {
-            if (student.getName().equalsIgnoreCase(name)) {
-                System.out.println(student);
-                found = true;
-            }
+    private static void searchByName(String name, int method) {
+        List<StudentRecord> found;
+        if (method == 2) {
+            found = students.findByNamePrefix(name, NAME_SEARCH_LIMIT);
+        } else if (method == 3) {
+            found = students.findByNameFuzzy(name, StudentNameIndex.defaultDistance(name), NAME_SEARCH_LIMIT);
+        } else {
+            found = students.findByName(name);
         }
-        if (!found) {
+        if (found.isEmpty()) {
             System.out.println("Student not found.");
+            return;
+        }
+        for (StudentRecord student : found) {
+            System.out.println(student);
+        }
+        if (method != 1 && found.size() == NAME_SEARCH_LIMIT) {
+            System.out.println("Showing the first " + NAME_SEARCH_LIMIT + " matches.");
         }
     }
 
-    private static boolean isSortedById() {
-        for (int i = 1; i < students.size(); i++) {
-            if (students.get(i - 1).getId().compareTo(students.get(i).getId()) > 0) {
-                return false;
-            }
+    private static void queryStudents(String text) {
+        StudentQuery query;
+        try {
+            query = StudentQuery.parse(text);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error in query: " + e.getMessage());
+            return;
+        }
+        int[] found = {0};
+        long start = METRICS.start();
+        query.execute(students).forEachOrdered(student -> {
+            System.out.println(student);
+            found[0]++;
+        });
+        METRICS.stop(StudentMetrics.Operation.QUERY, start);
+        if (found[0] == 0) {
+            System.out.println("No students found.");
+        } else {
+            System.out.println(found[0] + " students found (" + query.explain(students) + ").");
+        }
+    }
+
+    private static void printRanking(List<StudentRecord> ranking) {
+        if (ranking.isEmpty()) {
+            System.out.println("No students found.");
+            return;
+        }
+        for (int i = 0; i < ranking.size(); i++) {
+            System.out.println((i + 1) + ". " + ranking.get(i));
         }
-        return true;
+    }
+
+    /**
+     * Prints students through PRINTER, timed as a display.
+     */
+    private static void printStudents(StudentPrinter.Format format, int offset, int limit) {
+        long start = METRICS.start();
+        PRINTER.print(students, format, offset, limit);
+        METRICS.stop(StudentMetrics.Operation.DISPLAY, start);
     }
 
     private static void displayAllStudents() {
         try {
             if (students.isEmpty()) {
                 System.out.println("No students to display.");
+                return;
+            }
+            int pages = (students.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+            if (pages == 1) {
+                printStudents(StudentPrinter.Format.LINES, 0, Integer.MAX_VALUE);
+                return;
+            }
+            System.out.println("1. All Students");
+            System.out.println("2. All Students as a Table");
+            System.out.println("3. One Page as a Table (" + PAGE_SIZE + " students per page)");
+            int choice = getValidChoice(1, 3);
+            if (choice == 1) {
+                printStudents(StudentPrinter.Format.LINES, 0, Integer.MAX_VALUE);
+            } else if (choice == 2) {
+                printStudents(StudentPrinter.Format.TABLE, 0, Integer.MAX_VALUE);
             } else {
-                for (StudentRecord student : students) {
-                    System.out.println(student);
-                }
+                int page = Integer.parseInt(getValidString("Enter page number (1 to " + pages + "): ",
+                        input -> CHOICE_PATTERN.matcher(input).matches() && Integer.parseInt(input) >= 1
+                                && Integer.parseInt(input) <= pages,
+                        "Invalid page. Please enter a number between 1 and " + pages + "."));
+                printStudents(StudentPrinter.Format.TABLE, (page - 1) * PAGE_SIZE, PAGE_SIZE);
+                System.out.println("Page " + page + " of " + pages + ".");
             }
         } catch (Exception e) {
             System.out.println("Error displaying students: " + e.getMessage());
         }
     }
 
+    private static void showStatistics() {
+        if (statistics == null) {
+            System.out.println("Statistics are not available.");
+        } else {
+            System.out.println(statistics);
+        }
+        if (cache != null) {
+            System.out.println(cache);
+        }
+        System.out.println(METRICS);
+    }
+
     private static void saveStudentsToFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_NAME))) {
-            for (StudentRecord student : students) {
-                writer.write(student.getId() + "," + student.getName() + "," + student.getMarks());
-                writer.newLine();
+        long start = METRICS.start();
+        try {
+            if (journal != null) {
+                journal.save();
+            } else if (!students.isPersistent()) {
+                StudentRepositories.save(students, Paths.get(FILE_NAME));
             }
             System.out.println("Students saved to file successfully.");
         } catch (IOException e) {
             System.out.println("Error saving students to file: " + e.getMessage());
+        } finally {
+            METRICS.stop(StudentMetrics.Operation.SAVE, start);
         }
     }
 
     private static void loadStudentsFromFile() throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(FILE_NAME))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 3) {
-                    String id = parts[0];
-                    String name = parts[1];
-                    double marks = Double.parseDouble(parts[2]);
-                    students.add(new StudentRecord(id, name, marks));
+        long start = METRICS.start();
+        try {
+            StudentRepository backend = StudentRepositories.fromProperty("indexed");
+            if (!backend.isPersistent()) {
+                StudentRepositories.LoadResult result = StudentRepositories.load(backend, Paths.get(FILE_NAME),
+                        VALIDATOR::isValidId);
+                if (result.getMalformedLines() > 0) {
+                    System.out.println("Skipped " + result.getMalformedLines() + " malformed lines.");
+                }
+                if (result.getSkipped() > 0) {
+                    System.out.println("Skipped " + result.getSkipped() + " records with invalid or duplicate IDs.");
+                }
+            }
+            StatisticsStudentRepository counted = new StatisticsStudentRepository(new NameIndexedStudentRepository(backend));
+            statistics = counted.getStatistics();
+            cache = new CachingStudentRepository(counted);
+            backend = cache;
+            if (!backend.isPersistent()) {
+                journal = JournaledStudentRepository.open(backend, Paths.get(FILE_NAME), Paths.get(JOURNAL_FILE_NAME));
+                if (journal.getRecoveredChanges() > 0) {
+                    System.out.println("Recovered " + journal.getRecoveredChanges() + " changes from the journal.");
                 }
+                backend = journal;
             }
+            students = StudentMetrics.ENABLED ? new MetricsStudentRepository(backend) : backend;
             System.out.println("Students loaded from file successfully.");
         } catch (IOException e) {
             System.out.println("Error loading students from file: " + e.getMessage());
             throw e;
+        } finally {
+            METRICS.stop(StudentMetrics.Operation.LOAD, start);
+        }
+    }
+
+    private static void publishMetrics() {
+        try {
+            METRICS.registerMBeans();
+        } catch (JMException e) {
+            System.out.println("Error publishing metrics over JMX: " + e.getMessage());
+        }
+    }
+
+    private static void compactJournalIfNeeded() {
+        if (journal == null) return;
+        try {
+            journal.compactIfNeeded();
+        } catch (IOException e) {
+            System.out.println("Error compacting journal: " + e.getMessage());
+        }
+    }
+
+    private static void closeRepository() {
+        try {
+            students.close();
+        } catch (IOException e) {
+            System.out.println("Error closing student store: " + e.getMessage());
         }
+        journal = null;
     }
 
-    private static String getValidString(String prompt, String regex, String errorMessage) {
+    private static String getValidString(String prompt, Predicate<String> rule, String errorMessage) {
         while (true) {
             System.out.print(prompt);
             String input = scanner.nextLine();
-            if (input.matches(regex)) {
+            if (rule.test(input)) {
                 return input;
             }
             System.out.println(errorMessage);
@@ -8,19 +8,46 @@ package baidemo;
  *
  * @author ADMIN
  */
+import Baidemo.ArrayStudentRepository;
+import Baidemo.CachingStudentRepository;
+import Baidemo.JournaledStudentRepository;
+import Baidemo.MetricsStudentRepository;
+import Baidemo.NameIndexedStudentRepository;
+import Baidemo.SortEngine;
+import Baidemo.StatisticsStudentRepository;
+import Baidemo.StudentOrder;
+import Baidemo.StudentPrinter;
+import Baidemo.StudentQuery;
+import Baidemo.StudentRecord;
+import Baidemo.StudentRepositories;
+import Baidemo.StudentRepository;
+import Baidemo.StudentMetrics;
+import Baidemo.StudentStatistics;
+import Baidemo.StudentValidator;
 import java.io.*;
+import java.nio.file.Paths;
 import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Scanner;
+import javax.management.JMException;
 
 public class StudentManagementSystemWithArray {
 
-    private static Student[] students = new Student[100]; // Initial capacity of 100
-    private static int studentCount = 0; // Number of students currently in the array
+    private static StudentRepository students = new ArrayStudentRepository(); // -Dstudents.backend selects another backend
+    private static JournaledStudentRepository journal; // Write-ahead log of changes since the last save
+    private static StudentStatistics statistics; // Rank counts and marks histogram, kept up to date by every change
+    private static CachingStudentRepository cache; // Search results and sorted views, dropped by every change
     private static Scanner scanner = new Scanner(System.in);
     private static final String FILE_NAME = "students.txt";
+    private static final String JOURNAL_FILE_NAME = "students.journal";
+    private static final int NAME_SEARCH_LIMIT = 100;
+    private static final int PAGE_SIZE = 20;
+    private static final StudentPrinter PRINTER = new StudentPrinter(System.out);
+    private static final StudentMetrics METRICS = StudentMetrics.get();
 
     public static void main(String[] args) {
         loadStudentsFromFile();
+        publishMetrics();
 
         int choice;
 
@@ -32,7 +59,8 @@ public class StudentManagementSystemWithArray {
             System.out.println("4. Sort Students");
             System.out.println("5. Search Student");
             System.out.println("6. Display All Students");
-            System.out.println("7. Exit");
+            System.out.println("7. Show Statistics");
+            System.out.println("8. Exit");
             System.out.print("Enter your choice: ");
 
             try {
@@ -59,26 +87,30 @@ public class StudentManagementSystemWithArray {
                         displayAllStudents();
                         break;
                     case 7:
+                        showStatistics();
+                        break;
+                    case 8:
                         saveStudentsToFile();
+                        closeRepository();
                         System.out.println("Exiting the system.");
                         break;
                     default:
                         System.out.println("Invalid choice! Please try again.");
                 }
+                compactJournalIfNeeded();
             } catch (InputMismatchException e) {
-                System.out.println("Invalid input! Please enter a number between 1 and 7.");
+                System.out.println("Invalid input! Please enter a number between 1 and 8.");
                 scanner.nextLine(); // Consume invalid input
                 choice = -1; // Keep loop running
+            } catch (RuntimeException e) {
+                // Rejected by the backend (e.g. a non-numeric ID in the column store) or a failed journal write
+                System.out.println("Error: " + e.getMessage());
+                choice = -1;
             }
-        } while (choice != 7);
+        } while (choice != 8);
     }
 
     private static void addStudent() {
-        if (studentCount >= students.length) {
-            System.out.println("Student array is full. Cannot add more students.");
-            return;
-        }
-
         String id, name;
         double marks;
 
@@ -87,6 +119,9 @@ public class StudentManagementSystemWithArray {
         if (id.trim().isEmpty()) {
             System.out.println("Student ID cannot be empty!");
             return;
+        } else if (students.get(id) != null) {
+            System.out.println("A student with ID " + id + " already exists.");
+            return;
         }
 
         System.out.print("Enter Student Name: ");
@@ -94,9 +129,12 @@ public class StudentManagementSystemWithArray {
         if (name.trim().isEmpty()) {
             System.out.println("Student Name cannot be empty!");
             return;
-        } else if (name.matches(".*\\d.*")) {
+        } else if (StudentValidator.containsDigit(name)) {
             System.out.println("Student Name cannot contain numbers!");
             return;
+        } else if (StudentValidator.containsControl(name)) {
+            System.out.println("Student Name cannot contain tabs or control characters!");
+            return;
         }
 
         System.out.print("Enter Student Marks: ");
@@ -112,289 +150,405 @@ public class StudentManagementSystemWithArray {
             return;
         }
 
-        students[studentCount++] = new Student(id, name, marks);
-        System.out.println("Student added successfully.");
+        if (students.add(new StudentRecord(id, name, marks))) {
+            System.out.println("Student added successfully.");
+        } else {
+            System.out.println("A student with ID " + id + " already exists.");
+        }
     }
 
     private static void editStudent() {
         System.out.print("Enter Student ID to edit: ");
         String id = scanner.nextLine();
-        for (int i = 0; i < studentCount; i++) {
-            if (students[i].getId().equals(id)) {
-                System.out.print("Enter new name: ");
-                String name = scanner.nextLine();
-                if (name.trim().isEmpty()) {
-                    System.out.println("Student Name cannot be empty!");
-                    return;
-                } else if (name.matches(".*\\d.*")) {
-                    System.out.println("Student Name cannot contain numbers!");
-                    return;
-                }
+        if (students.get(id) == null) {
+            System.out.println("Student not found.");
+            return;
+        }
 
-                System.out.print("Enter new marks: ");
-                try {
-                    double marks = scanner.nextDouble();
-                    if (marks < 0 || marks > 10) {
-                        System.out.println("Marks must be between 0 and 10.");
-                        return;
-                    }
-                    students[i].setName(name);
-                    students[i].setMarks(marks);
-                    System.out.println("Student updated successfully.");
-                    return;
-                } catch (InputMismatchException e) {
-                    System.out.println("Invalid input! Marks must be a number.");
-                    scanner.nextLine(); // Consume invalid input
-                    return;
-                }
+        System.out.print("Enter new name: ");
+        String name = scanner.nextLine();
+        if (name.trim().isEmpty()) {
+            System.out.println("Student Name cannot be empty!");
+            return;
+        } else if (StudentValidator.containsDigit(name)) {
+            System.out.println("Student Name cannot contain numbers!");
+            return;
+        } else if (StudentValidator.containsControl(name)) {
+            System.out.println("Student Name cannot contain tabs or control characters!");
+            return;
+        }
+
+        System.out.print("Enter new marks: ");
+        try {
+            double marks = scanner.nextDouble();
+            if (marks < 0 || marks > 10) {
+                System.out.println("Marks must be between 0 and 10.");
+                return;
             }
+            if (students.update(id, name, marks)) {
+                System.out.println("Student updated successfully.");
+            } else {
+                System.out.println("Student not found.");
+            }
+        } catch (InputMismatchException e) {
+            System.out.println("Invalid input! Marks must be a number.");
+            scanner.nextLine(); // Consume invalid input
         }
-        System.out.println("Student not found.");
     }
 
     private static void deleteStudent() {
         System.out.print("Enter Student ID to delete: ");
         String id = scanner.nextLine();
-        for (int i = 0; i < studentCount; i++) {
-            if (students[i].getId().equals(id)) {
-                // Shift students to fill the gap
-                for (int j = i; j < studentCount - 1; j++) {
-                    students[j] = students[j + 1];
-                }
-                students[--studentCount] = null; // Remove last element
-                System.out.println("Student deleted successfully.");
-                return;
-            }
+        if (students.delete(id) == null) {
+            System.out.println("Student not found.");
+            return;
         }
-        System.out.println("Student not found.");
+        System.out.println("Student deleted successfully.");
     }
 
     private static void sortStudents() {
-        if (studentCount == 0) {
+        if (students.isEmpty()) {
             System.out.println("No students to sort.");
             return;
         }
 
-        System.out.println("Choose sorting method:");
-        System.out.println("1. Bubble Sort");
-        System.out.println("2. Selection Sort");
+        System.out.println("Sort by:");
+        System.out.println("1. ID");
+        System.out.println("2. Marks");
+        System.out.println("3. Several Keys");
         System.out.print("Enter your choice: ");
-        int sortChoice;
         try {
-            sortChoice = scanner.nextInt();
+            int keyChoice = scanner.nextInt();
             scanner.nextLine(); // Consume newline
+            if (keyChoice == 3) {
+                System.out.print("Enter sort keys, e.g. rank DESC, marks DESC, name, id: ");
+                StudentOrder order = StudentOrder.parse(scanner.nextLine());
+                order.sort(students);
+                System.out.println("Students sorted by " + order + ".");
+                return;
+            }
+            boolean byMarks = keyChoice == 2;
+
+            SortEngine.Algorithm[] algorithms = {SortEngine.Algorithm.MERGE, SortEngine.Algorithm.TIM, SortEngine.Algorithm.RADIX,
+                SortEngine.Algorithm.PARALLEL, SortEngine.Algorithm.BUBBLE, SortEngine.Algorithm.SELECTION};
 
-            switch (sortChoice) {
-                case 1:
-                    bubbleSortById();
-                    System.out.println("Students sorted by ID using Bubble Sort.");
-                    break;
-                case 2:
-                    selectionSortById();
-                    System.out.println("Students sorted by ID using Selection Sort.");
-                    break;
-                default:
-                    System.out.println("Invalid choice! Defaulting to Bubble Sort.");
-                    bubbleSortById();
-                    System.out.println("Students sorted by ID using Bubble Sort.");
-                    break;
+            System.out.println("Choose sorting method:");
+            for (int i = 0; i < algorithms.length; i++) {
+                System.out.println((i + 1) + ". " + algorithms[i]);
             }
-        } catch (InputMismatchException e) {
-            System.out.println("Invalid input! Please enter a number.");
-            scanner.nextLine(); // Consume invalid input
-        }
-    }
+            System.out.print("Enter your choice: ");
+            int sortChoice = scanner.nextInt();
+            scanner.nextLine(); // Consume newline
 
-    private static void bubbleSortById() {
-        boolean swapped;
-        do {
-            swapped = false;
-            for (int i = 0; i < studentCount - 1; i++) {
-                if (students[i].getId().compareTo(students[i + 1].getId()) > 0) {
-                    // Swap students
-                    Student temp = students[i];
-                    students[i] = students[i + 1];
-                    students[i + 1] = temp;
-                    swapped = true;
-                }
+            SortEngine.Algorithm algorithm;
+            if (sortChoice >= 1 && sortChoice <= algorithms.length) {
+                algorithm = algorithms[sortChoice - 1];
+            } else {
+                algorithm = SortEngine.Algorithm.MERGE;
+                System.out.println("Invalid choice! Defaulting to " + algorithm + ".");
             }
-        } while (swapped);
-    }
 
-    private static void selectionSortById() {
-        for (int i = 0; i < studentCount - 1; i++) {
-            int minIndex = i;
-            for (int j = i + 1; j < studentCount; j++) {
-                if (students[j].getId().compareTo(students[minIndex].getId()) < 0) {
-                    minIndex = j;
-                }
+            if (byMarks) {
+                students.sortByMarks(algorithm);
+                System.out.println("Students sorted by Marks using " + algorithm + ".");
+            } else {
+                students.sortById(algorithm);
+                System.out.println("Students sorted by ID using " + algorithm + ".");
             }
-            Student temp = students[minIndex];
-            students[minIndex] = students[i];
-            students[i] = temp;
+        } catch (InputMismatchException e) {
+            System.out.println("Invalid input! Please enter a number.");
+            scanner.nextLine(); // Consume invalid input
         }
     }
 
-        private static void searchStudent() {
-        System.out.println("1. Linear Search");
+    private static void searchStudent() {
+        System.out.println("1. Index Search");
         System.out.println("2. Binary Search");
+        System.out.println("3. ID Range Search");
+        System.out.println("4. Top Students by Marks");
+        System.out.println("5. Bottom Students by Marks");
+        System.out.println("6. Marks Percentile");
+        System.out.println("7. Name Search");
+        System.out.println("8. Name Prefix Search");
+        System.out.println("9. Similar Name Search (allows typos)");
+        System.out.println("10. Query (conditions on ID, name, marks and rank)");
         System.out.print("Choose search method: ");
         int choice = scanner.nextInt();
         scanner.nextLine();  // Consume newline
 
+        if (choice == 4 || choice == 5) {
+            System.out.print("How many students? ");
+            int count = scanner.nextInt();
+            scanner.nextLine(); // Consume newline
+            if (count < 0) {
+                System.out.println("The number of students cannot be negative.");
+                return;
+            }
+            printRanking(choice == 4 ? students.topByMarks(count) : students.bottomByMarks(count));
+            return;
+        }
+        if (choice == 6) {
+            System.out.print("Enter percentile (0 to 100): ");
+            double percent = scanner.nextDouble();
+            scanner.nextLine(); // Consume newline
+            if (!(percent >= 0 && percent <= 100)) {
+                System.out.println("Percentile must be between 0 and 100.");
+                return;
+            }
+            StudentRecord student = students.atMarksPercentile(percent);
+            System.out.println(student != null ? student : "No students found.");
+            return;
+        }
+
+        if (choice == 10) {
+            System.out.print("Enter query, e.g. marks >= 7.5 AND name startsWith Nguyen ORDER BY marks DESC LIMIT 50: ");
+            queryStudents(scanner.nextLine());
+            return;
+        }
+        if (choice >= 7 && choice <= 9) {
+            System.out.print("Enter Student Name to search: ");
+            String name = scanner.nextLine();
+            if (name.trim().isEmpty()) {
+                System.out.println("Student Name cannot be empty!");
+                return;
+            }
+            nameSearch(name, choice);
+            return;
+        }
+        if (choice == 3) {
+            System.out.print("Enter first Student ID: ");
+            String fromId = scanner.nextLine();
+            System.out.print("Enter last Student ID: ");
+            String toId = scanner.nextLine();
+            rangeSearch(fromId, toId);
+            return;
+        }
+
         System.out.print("Enter Student ID to search: ");
         String id = scanner.nextLine();
 
         if (choice == 1) {
-            linearSearch(id);
+            indexSearch(id);
         } else if (choice == 2) {
-            if (isSorted()) {
-                binarySearch(id);
-            } else {
-                System.out.println("Records are not sorted. Sort them first.");
-            }
+            binarySearch(id);
         } else {
             System.out.println("Invalid choice.");
         }
     }
 
-    private static void linearSearch(String id) {
-        for (int i = 0; i < studentCount; i++) {
-            if (students[i].getId().equals(id)) {
-                System.out.println(students[i]);
-                return;
-            }
-        }
-        System.out.println("Student not found.");
+    private static void indexSearch(String id) {
+        StudentRecord student = students.get(id);
+        System.out.println(student != null ? student : "Student not found.");
     }
 
     private static void binarySearch(String id) {
-        int left = 0, right = studentCount - 1;
-        while (left <= right) {
-            int mid = left + (right - left) / 2;
-            int cmp = students[mid].getId().compareTo(id);
-            if (cmp == 0) {
-                System.out.println(students[mid]);
-                return;
-            } else if (cmp < 0) {
-                left = mid + 1;
-            } else {
-                right = mid - 1;
-            }
+        // A one-ID range query, answered by the ordered index where the backend has one
+        List<StudentRecord> found = students.findByIdRange(id, id);
+        System.out.println(!found.isEmpty() ? found.get(0) : "Student not found.");
+    }
+
+    private static void rangeSearch(String fromId, String toId) {
+        StudentRecord from = new StudentRecord(fromId, "", 0);
+        StudentRecord to = new StudentRecord(toId, "", 0);
+        if (StudentRecord.ID_ORDER.compare(from, to) > 0) {
+            System.out.println("First ID must not be greater than last ID.");
+            return;
+        }
+        List<StudentRecord> range = students.findByIdRange(fromId, toId);
+        if (range.isEmpty()) {
+            System.out.println("No students found in this ID range.");
+            return;
         }
-        System.out.println("Student not found.");
+        for (StudentRecord student : range) {
+            System.out.println(student);
+        }
+        System.out.println(range.size() + " students found.");
     }
 
-private static boolean isSorted() {
-    for (int i = 1; i < studentCount; i++) {
-        if (students[i].getId().compareTo(students[i - 1].getId()) < 0) {
-            return false;
+    private static void nameSearch(String name, int choice) {
+        List<StudentRecord> found;
+        if (choice == 8) {
+            found = students.findByNamePrefix(name, NAME_SEARCH_LIMIT);
+        } else if (choice == 9) {
+            // One typo for short names, two for longer ones
+            found = students.findByNameFuzzy(name, name.length() <= 4 ? 1 : 2, NAME_SEARCH_LIMIT);
+        } else {
+            found = students.findByName(name);
+        }
+        if (found.isEmpty()) {
+            System.out.println("Student not found.");
+            return;
+        }
+        for (StudentRecord student : found) {
+            System.out.println(student);
+        }
+        if (choice != 7 && found.size() == NAME_SEARCH_LIMIT) {
+            System.out.println("Showing the first " + NAME_SEARCH_LIMIT + " matches.");
+        }
+    }
+
+    private static void queryStudents(String text) {
+        StudentQuery query;
+        try {
+            query = StudentQuery.parse(text);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error in query: " + e.getMessage());
+            return;
+        }
+        int[] found = {0};
+        long start = METRICS.start();
+        query.execute(students).forEachOrdered(student -> {
+            System.out.println(student);
+            found[0]++;
+        });
+        METRICS.stop(StudentMetrics.Operation.QUERY, start);
+        if (found[0] == 0) {
+            System.out.println("No students found.");
+        } else {
+            System.out.println(found[0] + " students found (" + query.explain(students) + ").");
         }
     }
-    return true;
-}
 
+    private static void printRanking(List<StudentRecord> ranking) {
+        if (ranking.isEmpty()) {
+            System.out.println("No students found.");
+            return;
+        }
+        for (int i = 0; i < ranking.size(); i++) {
+            System.out.println((i + 1) + ". " + ranking.get(i));
+        }
+    }
+
+    /**
+     * Prints students through PRINTER, timed as a display.
+     */
+    private static void printStudents(StudentPrinter.Format format, int offset, int limit) {
+        long start = METRICS.start();
+        PRINTER.print(students, format, offset, limit);
+        METRICS.stop(StudentMetrics.Operation.DISPLAY, start);
+    }
 
     private static void displayAllStudents() {
-        if (studentCount == 0) {
+        if (students.isEmpty()) {
             System.out.println("No students to display.");
-        } else {
-            for (int i = 0; i < studentCount; i++) {
-                System.out.println(students[i]);
+            return;
+        }
+        int pages = (students.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        if (pages == 1) {
+            printStudents(StudentPrinter.Format.LINES, 0, Integer.MAX_VALUE);
+            return;
+        }
+        System.out.println("1. All Students");
+        System.out.println("2. All Students as a Table");
+        System.out.println("3. One Page as a Table (" + PAGE_SIZE + " students per page)");
+        System.out.print("Choose display: ");
+        int choice = scanner.nextInt();
+        scanner.nextLine(); // Consume newline
+
+        if (choice == 1) {
+            printStudents(StudentPrinter.Format.LINES, 0, Integer.MAX_VALUE);
+        } else if (choice == 2) {
+            printStudents(StudentPrinter.Format.TABLE, 0, Integer.MAX_VALUE);
+        } else if (choice == 3) {
+            System.out.print("Enter page number (1 to " + pages + "): ");
+            int page = scanner.nextInt();
+            scanner.nextLine(); // Consume newline
+            if (page < 1 || page > pages) {
+                System.out.println("Page must be between 1 and " + pages + ".");
+                return;
             }
+            printStudents(StudentPrinter.Format.TABLE, (page - 1) * PAGE_SIZE, PAGE_SIZE);
+            System.out.println("Page " + page + " of " + pages + ".");
+        } else {
+            System.out.println("Invalid choice.");
+        }
+    }
+
+    private static void showStatistics() {
+        if (statistics == null) {
+            System.out.println("Statistics are not available.");
+        } else {
+            System.out.println(statistics);
+        }
+        if (cache != null) {
+            System.out.println(cache);
         }
+        System.out.println(METRICS);
     }
 
     private static void saveStudentsToFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_NAME))) {
-            for (int i = 0; i < studentCount; i++) {
-                writer.write(students[i].getId() + "," + students[i].getName() + "," + students[i].getMarks());
-                writer.newLine();
+        long start = METRICS.start();
+        try {
+            if (journal != null) {
+                // The snapshot now holds every journaled change, so the journal starts empty
+                journal.save();
+            } else if (!students.isPersistent()) {
+                StudentRepositories.save(students, Paths.get(FILE_NAME));
             }
             System.out.println("Students saved to file successfully.");
         } catch (IOException e) {
             System.out.println("Error saving students to file: " + e.getMessage());
+        } finally {
+            METRICS.stop(StudentMetrics.Operation.SAVE, start);
         }
     }
 
     private static void loadStudentsFromFile() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(FILE_NAME))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 3) {
-                    String id = parts[0];
-                    String name = parts[1];
-                    double marks = Double.parseDouble(parts[2]);
-                    if (studentCount >= students.length) {
-                        // Expand the array if necessary
-                        expandStudentArray();
-                    }
-                    students[studentCount++] = new Student(id, name, marks);
+        long start = METRICS.start();
+        try {
+            StudentRepository backend = StudentRepositories.fromProperty("array");
+            if (!backend.isPersistent()) {
+                StudentRepositories.LoadResult result = StudentRepositories.load(backend, Paths.get(FILE_NAME), id -> true);
+                if (result.getMalformedLines() > 0) {
+                    System.out.println("Skipped " + result.getMalformedLines() + " malformed lines.");
+                }
+                if (result.getSkipped() > 0) {
+                    System.out.println("Skipped " + result.getSkipped() + " records with duplicate IDs.");
+                }
+            }
+            StatisticsStudentRepository counted = new StatisticsStudentRepository(new NameIndexedStudentRepository(backend));
+            statistics = counted.getStatistics();
+            cache = new CachingStudentRepository(counted);
+            backend = cache;
+            if (!backend.isPersistent()) {
+                journal = JournaledStudentRepository.open(backend, Paths.get(FILE_NAME), Paths.get(JOURNAL_FILE_NAME));
+                if (journal.getRecoveredChanges() > 0) {
+                    System.out.println("Recovered " + journal.getRecoveredChanges() + " changes from the journal.");
                 }
+                backend = journal;
             }
+            students = StudentMetrics.ENABLED ? new MetricsStudentRepository(backend) : backend;
             System.out.println("Students loaded from file successfully.");
         } catch (IOException e) {
             System.out.println("Error loading students from file: " + e.getMessage());
+        } finally {
+            METRICS.stop(StudentMetrics.Operation.LOAD, start);
         }
     }
 
-    private static void expandStudentArray() {
-        Student[] newArray = new Student[students.length * 2];
-        System.arraycopy(students, 0, newArray, 0, students.length);
-        students = newArray;
-    }
-
-    static class Student {
-        private String id;
-        private String name;
-        private double marks;
-
-        public Student(String id, String name, double marks) {
-            this.id = id;
-            this.name = name;
-            this.marks = marks;
-        }
-
-        public String getId() {
-            return id;
-        }
-
-        public String getName() {
-            return name;
-        }
-
-        public double getMarks() {
-            return marks;
-        }
-
-        public void setName(String name) {
-            this.name = name;
-        }
-
-        public void setMarks(double marks) {
-            this.marks = marks;
+    private static void publishMetrics() {
+        try {
+            METRICS.registerMBeans();
+        } catch (JMException e) {
+            System.out.println("Error publishing metrics over JMX: " + e.getMessage());
         }
+    }
 
-        public String getRank() {
-            if (marks >= 0 && marks < 5.0) {
-                return "Fail";
-            } else if (marks >= 5.0 && marks < 6.5) {
-                return "Medium";
-            } else if (marks >= 6.5 && marks < 7.5) {
-                return "Good";
-            } else if (marks >= 7.5 && marks < 9.0) {
-                return "Very Good";
-            } else if (marks >= 9.0 && marks <= 10.0) {
-                return "Excellent";
-            }
-            return "Invalid Marks";
+    private static void compactJournalIfNeeded() {
+        if (journal == null) return;
+        try {
+            journal.compactIfNeeded();
+        } catch (IOException e) {
+            System.out.println("Error compacting journal: " + e.getMessage());
         }
+    }
 
-        @Override
-        public String toString() {
-            return "Student ID: " + id + ", Name: " + name + ", Marks: " + marks + ", Rank: " + getRank();
+    private static void closeRepository() {
+        try {
+            students.close();
+        } catch (IOException e) {
+            System.out.println("Error closing student store: " + e.getMessage());
         }
+        journal = null;
     }
 }
-
@@ -0,0 +1,268 @@
+package Baidemo;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Student Metrics
+ *
+ * Process-wide counters for the student store: a latency histogram per kind of operation (load,
+ * save, add, edit, delete, lookup, search, query, sort, display), the students visited by searches
+ * that had to scan the roster, and the bytes read and written by snapshots and the journal. The
+ * consoles print them under Show Statistics and registerMBeans publishes them over JMX as
+ * Baidemo:type=StudentMetrics, one MBean per operation.
+ *
+ * Repository operations are timed by MetricsStudentRepository, which callers leave out of the chain
+ * when metrics are off. What the wrapper cannot see is recorded where it happens: the consoles and
+ * the server time loading, saving, queries and display, and the scanning searches, snapshots and
+ * journal count students and bytes. The counts are only taken behind a check of ENABLED and start and
+ * stop check it themselves, so with -Dstudents.metrics=false (ENABLED is a constant) none of this,
+ * arguments included, costs anything.
+ */
+public final class StudentMetrics {
+
+    public static final String ENABLED_PROPERTY = "students.metrics";
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY));
+    public static final String OBJECT_NAME = "Baidemo:type=StudentMetrics";
+
+    private static final StudentMetrics INSTANCE = new StudentMetrics();
+
+    public enum Operation {
+        LOAD("Load"), SAVE("Save"), ADD("Add"), EDIT("Edit"), DELETE("Delete"), GET("Lookup"),
+        SEARCH("Search"), QUERY("Query"), SORT("Sort"), DISPLAY("Display");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Totals over every operation, as published over JMX.
+     */
+    public interface MetricsMXBean {
+        long getStudentsScanned();
+
+        long getBytesRead();
+
+        long getBytesWritten();
+
+        String getReport();
+
+        void reset();
+    }
+
+    /**
+     * Count and latency percentiles of one operation in milliseconds, as published over JMX.
+     */
+    public interface OperationMXBean {
+        long getCount();
+
+        double getMeanMillis();
+
+        double getP50Millis();
+
+        double getP90Millis();
+
+        double getP99Millis();
+
+        double getP999Millis();
+
+        double getMaxMillis();
+    }
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final LongAdder scans = new LongAdder();
+    private final LongAdder studentsScanned = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private boolean registered; // Guarded by this
+
+    private StudentMetrics() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+    }
+
+    public static StudentMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * The start time to pass to stop, or 0 when metrics are off.
+     */
+    public long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records one operation that began at start.
+     */
+    public void stop(Operation operation, long start) {
+        if (ENABLED) {
+            latencies.get(operation).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a search that had to visit this many students instead of using an index.
+     */
+    public void scanned(long students) {
+        if (ENABLED) {
+            scans.increment();
+            studentsScanned.add(students);
+        }
+    }
+
+    public void read(long bytes) {
+        if (ENABLED) {
+            bytesRead.add(bytes);
+        }
+    }
+
+    public void written(long bytes) {
+        if (ENABLED) {
+            bytesWritten.add(bytes);
+        }
+    }
+
+    public LatencyHistogram latency(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    public long getScans() {
+        return scans.sum();
+    }
+
+    public long getStudentsScanned() {
+        return studentsScanned.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public void reset() {
+        latencies.values().forEach(LatencyHistogram::reset);
+        scans.reset();
+        studentsScanned.reset();
+        bytesRead.reset();
+        bytesWritten.reset();
+    }
+
+    /**
+     * Publishes the metrics on the platform MBean server. Does nothing when metrics are off or they
+     * were already published.
+     */
+    public synchronized void registerMBeans() throws JMException {
+        if (!ENABLED || registered) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(new StandardMBean(new MetricsMXBean() {
+            @Override
+            public long getStudentsScanned() {
+                return StudentMetrics.this.getStudentsScanned();
+            }
+
+            @Override
+            public long getBytesRead() {
+                return StudentMetrics.this.getBytesRead();
+            }
+
+            @Override
+            public long getBytesWritten() {
+                return StudentMetrics.this.getBytesWritten();
+            }
+
+            @Override
+            public String getReport() {
+                return StudentMetrics.this.toString();
+            }
+
+            @Override
+            public void reset() {
+                StudentMetrics.this.reset();
+            }
+        }, MetricsMXBean.class, true), new ObjectName(OBJECT_NAME));
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram latency = latencies.get(operation);
+            server.registerMBean(new StandardMBean(new OperationMXBean() {
+                @Override
+                public long getCount() {
+                    return latency.getCount();
+                }
+
+                @Override
+                public double getMeanMillis() {
+                    return latency.getMeanNanos() / 1e6;
+                }
+
+                @Override
+                public double getP50Millis() {
+                    return latency.getValueAtPercentile(50) / 1e6;
+                }
+
+                @Override
+                public double getP90Millis() {
+                    return latency.getValueAtPercentile(90) / 1e6;
+                }
+
+                @Override
+                public double getP99Millis() {
+                    return latency.getValueAtPercentile(99) / 1e6;
+                }
+
+                @Override
+                public double getP999Millis() {
+                    return latency.getValueAtPercentile(99.9) / 1e6;
+                }
+
+                @Override
+                public double getMaxMillis() {
+                    return latency.getMaxNanos() / 1e6;
+                }
+            }, OperationMXBean.class, true), new ObjectName(OBJECT_NAME + ",operation=" + operation));
+        }
+        registered = true;
+    }
+
+    @Override
+    public String toString() {
+        if (!ENABLED) {
+            return "Metrics are off (-D" + ENABLED_PROPERTY + "=false).";
+        }
+        StringBuilder report = new StringBuilder("Operation      Count     Mean      p50      p90      p99    p99.9      Max (ms)");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram latency = latencies.get(operation);
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            report.append(String.format("%n%-9s %10d %8.3f %8.3f %8.3f %8.3f %8.3f %8.3f", operation, latency.getCount(),
+                    latency.getMeanNanos() / 1e6, latency.getValueAtPercentile(50) / 1e6,
+                    latency.getValueAtPercentile(90) / 1e6, latency.getValueAtPercentile(99) / 1e6,
+                    latency.getValueAtPercentile(99.9) / 1e6, latency.getMaxNanos() / 1e6));
+        }
+        long scanCount = scans.sum();
+        report.append(String.format("%nSearches that scanned the roster: %d, students scanned per such search: %.1f",
+                scanCount, scanCount == 0 ? 0.0 : (double) studentsScanned.sum() / scanCount));
+        report.append(String.format("%nBytes read: %d, bytes written: %d", bytesRead.sum(), bytesWritten.sum()));
+        return report.toString();
+    }
+}
@@ -0,0 +1,480 @@
+package Baidemo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Student Name Index
+ *
+ * Maps case-folded names to the IDs of the students who have them. The names are kept sorted, so an
+ * exact or prefix lookup is a tree descent plus the matches. For typo-tolerant lookups every distinct
+ * name also gets a number and is listed under each of its trigrams; a name within d edits of the
+ * query contains all but at most 4d of the query's trigrams, so only names listed under the query's
+ * 4d + 1 rarest trigrams need their edit distance measured.
+ *
+ * Folding matches String.equalsIgnoreCase character by character, so an exact lookup finds exactly
+ * the students a case-insensitive scan would. Readers share a read lock and changes take the write
+ * lock briefly, which lets the server search while clerks edit.
+ */
+final class StudentNameIndex {
+
+    private static final int HISTOGRAM_SIZE = 128;
+    private static final long GRAM_SCRAMBLE = 0x9E3779B97F4A7C15L;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final boolean sharing;
+    // Folded name -> its number and the IDs of the students with that name
+    private final NavigableMap<String, Entry> byName = new TreeMap<>();
+    // Folded names by number; removed names leave null until the lists are rebuilt
+    private final List<String> namesByNumber = new ArrayList<>();
+    // Trigram -> numbers of the names containing it, including removed ones until the next rebuild
+    private final Map<Long, IntList> postings = new HashMap<>();
+    // Length -> numbers of the names of that length, for queries too short for the trigram bound
+    private final Map<Integer, IntList> byLength = new HashMap<>();
+    private int removedNames;
+
+    StudentNameIndex() {
+        this(false);
+    }
+
+    /**
+     * An index that, when sharing, also hands back one String per name for the students to keep, so
+     * a name repeated across the roster is held once. The String goes with the last student who has
+     * the name.
+     */
+    StudentNameIndex(boolean sharing) {
+        this.sharing = sharing;
+    }
+
+    /**
+     * A distinct folded name. Most names belong to one student, so a single ID is kept as it is and
+     * only a shared name gets a set. The name as first written is kept too, when sharing, for the
+     * students who write it the same way.
+     */
+    private static final class Entry {
+        int number;
+        Object ids;
+        final String name;
+
+        Entry(int number, String id, String name) {
+            this.number = number;
+            this.ids = id;
+            this.name = name;
+        }
+
+        @SuppressWarnings("unchecked")
+        void add(String id) {
+            if (ids instanceof Set) {
+                ((Set<String>) ids).add(id);
+            } else if (!ids.equals(id)) {
+                Set<String> set = new HashSet<>(4);
+                set.add((String) ids);
+                set.add(id);
+                ids = set;
+            }
+        }
+
+        /**
+         * Removes the ID and returns true if the name has no students left.
+         */
+        @SuppressWarnings("unchecked")
+        boolean removeLast(String id) {
+            if (ids instanceof Set) {
+                Set<String> set = (Set<String>) ids;
+                set.remove(id);
+                return set.isEmpty();
+            }
+            return ids.equals(id);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<String> list() {
+            if (ids instanceof Set) {
+                return new ArrayList<>((Set<String>) ids);
+            }
+            List<String> list = new ArrayList<>(1);
+            list.add((String) ids);
+            return list;
+        }
+    }
+
+    /**
+     * Lists the student under the name and returns the shared String for it (the given one if the
+     * index is not sharing, or the name is new or written differently).
+     */
+    String add(String name, String id) {
+        String folded = fold(name);
+        lock.writeLock().lock();
+        try {
+            Entry entry = byName.get(folded);
+            if (entry == null) {
+                // An already folded name is its own key, so keeping it costs nothing extra
+                byName.put(folded, new Entry(number(folded), id, sharing ? name : null));
+                return name;
+            }
+            entry.add(id);
+            return shared(entry, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The shared String for the name if some student already has it written the same way, otherwise
+     * the name itself.
+     */
+    String shared(String name) {
+        if (!sharing) {
+            return name;
+        }
+        lock.readLock().lock();
+        try {
+            return shared(byName.get(fold(name)), name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String shared(Entry entry, String name) {
+        return entry != null && entry.name != null && entry.name.equals(name) ? entry.name : name;
+    }
+
+    /**
+     * Gives a new name the next number and lists it under its trigrams and length.
+     */
+    private int number(String folded) {
+        int number = namesByNumber.size();
+        namesByNumber.add(folded);
+        for (long gram : grams(folded)) {
+            postings.computeIfAbsent(gram, g -> new IntList()).add(number);
+        }
+        byLength.computeIfAbsent(folded.length(), l -> new IntList()).add(number);
+        return number;
+    }
+
+    void remove(String name, String id) {
+        String folded = fold(name);
+        lock.writeLock().lock();
+        try {
+            Entry entry = byName.get(folded);
+            if (entry == null || !entry.removeLast(id)) {
+                return;
+            }
+            byName.remove(folded);
+            namesByNumber.set(entry.number, null);
+            // The lists keep the dead number; rebuild them once they are mostly dead
+            if (++removedNames > 1024 && removedNames > byName.size()) {
+                renumber();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void renumber() {
+        namesByNumber.clear();
+        postings.clear();
+        byLength.clear();
+        removedNames = 0;
+        for (Map.Entry<String, Entry> entry : byName.entrySet()) {
+            entry.getValue().number = number(entry.getKey());
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            byName.clear();
+            namesByNumber.clear();
+            postings.clear();
+            byLength.clear();
+            removedNames = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of the students whose name equals this one ignoring case.
+     */
+    List<String> exact(String name) {
+        lock.readLock().lock();
+        try {
+            Entry entry = byName.get(fold(name));
+            return entry != null ? entry.list() : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * IDs grouped by name in case-insensitive name order, for names starting with the prefix.
+     * Stops once limit IDs have been collected.
+     */
+    List<List<String>> prefix(String prefix, int limit) {
+        String folded = fold(prefix);
+        List<List<String>> groups = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int collected = 0;
+            for (Map.Entry<String, Entry> entry : byName.tailMap(folded, true).entrySet()) {
+                if (collected >= limit || !entry.getKey().startsWith(folded)) {
+                    break;
+                }
+                List<String> ids = entry.getValue().list();
+                groups.add(ids);
+                collected += ids.size();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return groups;
+    }
+
+    /**
+     * IDs grouped by name, closest names first, for names within maxDistance edits of the query;
+     * a swap of two neighbouring letters counts as one edit. Stops once limit IDs have been collected.
+     */
+    List<List<String>> fuzzy(String name, int maxDistance, int limit) {
+        String query = fold(name);
+        List<String> matches = new ArrayList<>();
+        List<Integer> distances = new ArrayList<>();
+        int[] queryHistogram = histogram(query);
+        int[] scratch = new int[HISTOGRAM_SIZE];
+        lock.readLock().lock();
+        try {
+            for (String candidate : candidates(query, maxDistance)) {
+                if (!closeHistograms(queryHistogram, candidate, scratch, maxDistance)) {
+                    continue;
+                }
+                int distance = distance(query, candidate, maxDistance);
+                if (distance <= maxDistance) {
+                    matches.add(candidate);
+                    distances.add(distance);
+                }
+            }
+            Integer[] order = new Integer[matches.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int byDistance = Integer.compare(distances.get(a), distances.get(b));
+                return byDistance != 0 ? byDistance : matches.get(a).compareTo(matches.get(b));
+            });
+            List<List<String>> groups = new ArrayList<>();
+            int collected = 0;
+            for (Integer i : order) {
+                if (collected >= limit) {
+                    break;
+                }
+                List<String> ids = byName.get(matches.get(i)).list();
+                groups.add(ids);
+                collected += ids.size();
+            }
+            return groups;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Names that may be within maxDistance of the query: those sharing at least G - 4d of its G
+     * trigrams, counted in one pass over the query's posting lists. When the query has too few
+     * trigrams for that bound, every name whose length is within maxDistance is a candidate.
+     */
+    private List<String> candidates(String query, int maxDistance) {
+        long[] queryGrams = grams(query);
+        int needed = queryGrams.length - 4 * maxDistance;
+        List<String> candidates = new ArrayList<>();
+        if (needed <= 0) {
+            for (int length = Math.max(0, query.length() - maxDistance); length <= query.length() + maxDistance; length++) {
+                addNames(byLength.get(length), candidates);
+            }
+            return candidates;
+        }
+        // One byte per name keeps the counters small; a count that saturated still has to qualify
+        needed = Math.min(needed, Byte.MAX_VALUE);
+        byte[] shared = new byte[namesByNumber.size()];
+        for (long gram : queryGrams) {
+            IntList list = postings.get(gram);
+            if (list == null) continue;
+            for (int i = 0; i < list.size; i++) {
+                int number = list.values[i];
+                if (shared[number] < Byte.MAX_VALUE) {
+                    shared[number]++;
+                }
+            }
+        }
+        for (int number = 0; number < shared.length; number++) {
+            if (shared[number] >= needed) {
+                String candidate = namesByNumber.get(number);
+                if (candidate != null && Math.abs(candidate.length() - query.length()) <= maxDistance) {
+                    candidates.add(candidate);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private void addNames(IntList numbers, List<String> names) {
+        if (numbers == null) return;
+        for (int i = 0; i < numbers.size; i++) {
+            String name = namesByNumber.get(numbers.values[i]);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+    }
+
+    private static int[] histogram(String folded) {
+        int[] histogram = new int[HISTOGRAM_SIZE];
+        for (int i = 0; i < folded.length(); i++) {
+            histogram[folded.charAt(i) & (HISTOGRAM_SIZE - 1)]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * Cheap lower bound on the edit distance: an edit changes the character counts by at most two in
+     * total (a swap by none), so names whose counts differ by more than 2 * maxDistance are too far
+     * apart. Characters share buckets modulo 128, which can only make the bound weaker.
+     */
+    private static boolean closeHistograms(int[] queryHistogram, String candidate, int[] scratch, int maxDistance) {
+        System.arraycopy(queryHistogram, 0, scratch, 0, HISTOGRAM_SIZE);
+        for (int i = 0; i < candidate.length(); i++) {
+            scratch[candidate.charAt(i) & (HISTOGRAM_SIZE - 1)]--;
+        }
+        int difference = 0;
+        for (int count : scratch) {
+            difference += Math.abs(count);
+        }
+        return difference <= 2 * maxDistance;
+    }
+
+    /**
+     * The typo allowance used when the caller does not give one: one edit for names of up to four
+     * characters, two for longer ones.
+     */
+    static int defaultDistance(String name) {
+        return name.length() <= 4 ? 1 : 2;
+    }
+
+    /**
+     * Case folding under which two strings are equal exactly when equalsIgnoreCase says so.
+     */
+    static String fold(String name) {
+        int i = 0;
+        while (i < name.length() && foldChar(name.charAt(i)) == name.charAt(i)) {
+            i++;
+        }
+        if (i == name.length()) {
+            return name; // Already folded
+        }
+        char[] chars = name.toCharArray();
+        for (; i < chars.length; i++) {
+            chars[i] = foldChar(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static char foldChar(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * The distinct trigrams of the name padded with a start and an end marker, three chars to a long.
+     */
+    private static long[] grams(String folded) {
+        int n = folded.length() + 2;
+        if (n < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[n - 2];
+        for (int i = 0; i < grams.length; i++) {
+            long packed = ((long) charAt(folded, i - 1) << 32) | ((long) charAt(folded, i) << 16) | charAt(folded, i + 1);
+            // Long.hashCode folds the halves together, which would collide the first and last char
+            grams[i] = packed * GRAM_SCRAMBLE;
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private static char charAt(String folded, int i) {
+        // Start and end markers; a name containing these control chars only gains candidates the distance check drops
+        return i < 0 ? '\u0000' : i >= folded.length() ? '\u0001' : folded.charAt(i);
+    }
+
+    /**
+     * Growable list of name numbers.
+     */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Optimal string alignment distance between a and b, or max + 1 as soon as it must exceed max.
+     * Only cells within max of the diagonal can stay at or below max, so only those are computed.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int over = max + 1;
+        int[] previous2 = new int[b.length() + 2];
+        int[] previous = new int[b.length() + 2];
+        int[] current = new int[b.length() + 2];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = Math.min(j, over);
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            current[0] = Math.min(i, over);
+            current[from - 1] = from == 1 ? current[0] : over;
+            int rowMin = current[from - 1];
+            char ca = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                char cb = b.charAt(j - 1);
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + (ca == cb ? 0 : 1));
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = Math.min(value, over);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            // The next row reads one cell past this band
+            current[to + 1] = over;
+            if (rowMin > max) {
+                return over;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,318 @@
+package Baidemo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Student Order
+ *
+ * An ordering on several student fields, such as "rank DESC, marks DESC, name, id". Students equal
+ * on every listed field are ordered by ID, so the order is total and sorting by it is stable and
+ * repeatable. Names compare ignoring case. A StudentOrder is immutable and can be reused for any
+ * number of sorts.
+ *
+ * sort does not call a comparator per comparison. Each field of each student is read once and
+ * replaced by its dense rank among the values present (marks and IDs by radix sort, names by sorting
+ * the distinct names of the students being sorted); the ranks are packed into as few 63-bit keys as
+ * they fit in, and those keys are radix sorted from the least significant. comparator gives the same
+ * order for code that needs one, such as bounded heaps.
+ */
+public final class StudentOrder {
+
+    public enum Field { ID, NAME, MARKS, RANK }
+
+    private static final int KEY_BITS = 63;
+
+    private final Field[] fields;
+    private final boolean[] descending;
+    private final Comparator<StudentRecord> comparator;
+
+    private StudentOrder(Field[] fields, boolean[] descending) {
+        this.fields = fields;
+        this.descending = descending;
+        Comparator<StudentRecord> order = null;
+        for (int i = 0; i < fields.length; i++) {
+            Comparator<StudentRecord> key = comparatorFor(fields[i]);
+            key = descending[i] ? key.reversed() : key;
+            order = order == null ? key : order.thenComparing(key);
+        }
+        this.comparator = order == null ? StudentRecord.ID_ORDER : order.thenComparing(StudentRecord.ID_ORDER);
+    }
+
+    /**
+     * Orders by one field.
+     */
+    public static StudentOrder by(Field field, boolean descending) {
+        return new StudentOrder(new Field[0], new boolean[0]).then(field, descending);
+    }
+
+    /**
+     * This order with one more field to break its ties.
+     */
+    public StudentOrder then(Field field, boolean descending) {
+        Field[] moreFields = Arrays.copyOf(fields, fields.length + 1);
+        boolean[] moreDescending = Arrays.copyOf(this.descending, fields.length + 1);
+        moreFields[fields.length] = field;
+        moreDescending[fields.length] = descending;
+        return new StudentOrder(moreFields, moreDescending);
+    }
+
+    /**
+     * Parses a comma-separated list of fields (id, name, marks, rank), each optionally followed by ASC
+     * or DESC, throwing IllegalArgumentException with the reason if it is malformed.
+     */
+    public static StudentOrder parse(String text) {
+        StudentOrder order = null;
+        for (String part : text.split(",", -1)) {
+            String[] words = part.trim().split("\\s+");
+            if (words.length > 2 || words[0].isEmpty()) {
+                throw new IllegalArgumentException("Invalid sort key: \"" + part.trim() + "\" (expected a field and ASC or DESC)");
+            }
+            Field field = parseField(words[0]);
+            boolean descending = false;
+            if (words.length == 2) {
+                if (words[1].equalsIgnoreCase("DESC")) {
+                    descending = true;
+                } else if (!words[1].equalsIgnoreCase("ASC")) {
+                    throw new IllegalArgumentException("Expected ASC or DESC after " + words[0] + ", not " + words[1]);
+                }
+            }
+            order = order == null ? by(field, descending) : order.then(field, descending);
+        }
+        return order;
+    }
+
+    static Field parseField(String name) {
+        for (Field field : Field.values()) {
+            if (field.name().equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + name + " (expected id, name, marks or rank)");
+    }
+
+    public Field firstField() {
+        return fields[0];
+    }
+
+    public boolean isFirstDescending() {
+        return descending[0];
+    }
+
+    public Comparator<StudentRecord> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Reorders the stored students. The order is worked out on a copy of the roster and handed to the
+     * repository as a radix key holding each student's final position, so every backend that can sort
+     * applies it in linear time.
+     */
+    public void sort(StudentRepository repository) {
+        StudentRecord[] students = repository.all().toArray(new StudentRecord[0]);
+        int[] order = sortedIndexes(students, 0, students.length);
+        Map<String, Integer> positions = new HashMap<>(Math.max(16, students.length * 4 / 3 + 1));
+        for (int i = 0; i < order.length; i++) {
+            positions.put(students[order[i]].getId(), i);
+        }
+        // Students added since the copy was taken keep their relative order after the others
+        repository.sort(SortEngine.Algorithm.RADIX, comparator,
+                student -> positions.getOrDefault(student.getId(), Integer.MAX_VALUE));
+    }
+
+    /**
+     * Sorts items[from, to) in this order. IDs are taken to be unique, as in a roster, so fields
+     * listed after ID are not compared.
+     */
+    public void sort(StudentRecord[] items, int from, int to) {
+        int[] order = sortedIndexes(items, from, to);
+        StudentRecord[] copy = Arrays.copyOfRange(items, from, to);
+        for (int i = 0; i < order.length; i++) {
+            items[from + i] = copy[order[i]];
+        }
+    }
+
+    /**
+     * The offsets from 'from' of items[from, to) in sorted order.
+     */
+    private int[] sortedIndexes(StudentRecord[] items, int from, int to) {
+        int n = to - from;
+        List<Field> keyFields = new ArrayList<>(Arrays.asList(fields));
+        List<Boolean> keyDescending = new ArrayList<>();
+        for (boolean d : descending) {
+            keyDescending.add(d);
+        }
+        if (!keyFields.contains(Field.ID)) {
+            keyFields.add(Field.ID);
+            keyDescending.add(false);
+        }
+        // Dense ranks per field; a field after ID can never break a tie, so it is dropped
+        int keyCount = keyFields.indexOf(Field.ID) + 1;
+        int[][] ranks = new int[keyCount][];
+        int[] bits = new int[keyCount];
+        for (int f = 0; f < keyCount; f++) {
+            int[] rank = new int[n];
+            int distinct = denseRanks(items, from, n, keyFields.get(f), rank);
+            if (keyDescending.get(f)) {
+                for (int i = 0; i < n; i++) {
+                    rank[i] = distinct - 1 - rank[i];
+                }
+            }
+            ranks[f] = rank;
+            bits[f] = distinct <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(distinct - 1);
+        }
+
+        // Pack runs of fields into 63-bit keys and radix sort by them, least significant first
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        long[] keys = new long[n];
+        int last = keyCount - 1;
+        while (last >= 0) {
+            int first = last;
+            int used = bits[last];
+            while (first > 0 && used + bits[first - 1] <= KEY_BITS) {
+                used += bits[--first];
+            }
+            for (int i = 0; i < n; i++) {
+                int item = order[i];
+                long key = 0;
+                for (int f = first; f <= last; f++) {
+                    key = (key << bits[f]) | ranks[f][item];
+                }
+                keys[i] = key;
+            }
+            int[] pass = SortEngine.radixOrder(keys, n);
+            int[] reordered = new int[n];
+            for (int i = 0; i < n; i++) {
+                reordered[i] = order[pass[i]];
+            }
+            order = reordered;
+            last = first - 1;
+        }
+        return order;
+    }
+
+    /**
+     * Fills rank[i] with the dense rank of items[from + i]'s field value (0 for the smallest) and
+     * returns the number of distinct values.
+     */
+    private static int denseRanks(StudentRecord[] items, int from, int n, Field field, int[] rank) {
+        switch (field) {
+            case RANK:
+                for (int i = 0; i < n; i++) {
+                    rank[i] = items[from + i].getRankLevel().ordinal();
+                }
+                return StudentRecord.Rank.values().length;
+            case MARKS: {
+                long[] keys = new long[n];
+                for (int i = 0; i < n; i++) {
+                    keys[i] = SortEngine.sortableKey(items[from + i].getMarks());
+                }
+                return denseRanks(keys, n, null, rank);
+            }
+            case ID: {
+                long[] keys = new long[n];
+                String[] ids = new String[n];
+                for (int i = 0; i < n; i++) {
+                    keys[i] = items[from + i].getIdKey();
+                    ids[i] = items[from + i].getId();
+                }
+                return denseRanks(keys, n, ids, rank);
+            }
+            default: {
+                // Number the distinct names as written, then fold and sort only those; students in the
+                // same repository share one String per name, so the lookups mostly hit by reference
+                Map<String, Integer> numbers = new HashMap<>();
+                List<String> folded = new ArrayList<>();
+                for (int i = 0; i < n; i++) {
+                    String name = items[from + i].getName();
+                    Integer number = numbers.putIfAbsent(name, folded.size());
+                    if (number == null) {
+                        number = folded.size();
+                        folded.add(StudentNameIndex.fold(name));
+                    }
+                    rank[i] = number;
+                }
+                Integer[] byName = new Integer[folded.size()];
+                for (int d = 0; d < byName.length; d++) {
+                    byName[d] = d;
+                }
+                Arrays.sort(byName, Comparator.comparing(folded::get));
+                // Names differing only in case share a rank
+                int[] rankOfNumber = new int[byName.length];
+                int distinct = 0;
+                for (int r = 0; r < byName.length; r++) {
+                    if (r > 0 && !folded.get(byName[r]).equals(folded.get(byName[r - 1]))) {
+                        distinct++;
+                    }
+                    rankOfNumber[byName[r]] = distinct;
+                }
+                for (int i = 0; i < n; i++) {
+                    rank[i] = rankOfNumber[rank[i]];
+                }
+                return byName.length == 0 ? 0 : distinct + 1;
+            }
+        }
+    }
+
+    /**
+     * Dense ranks of numeric keys. Where texts are given (IDs), equal keys are told apart by text, as
+     * in StudentRecord.compareIds.
+     */
+    private static int denseRanks(long[] keys, int n, String[] texts, int[] rank) {
+        int[] order = SortEngine.radixOrder(keys, n);
+        int distinct = 0;
+        for (int start = 0; start < n; ) {
+            int end = start + 1;
+            while (end < n && keys[order[end]] == keys[order[start]]) {
+                end++;
+            }
+            if (texts == null || end - start == 1) {
+                for (int i = start; i < end; i++) {
+                    rank[order[i]] = distinct;
+                }
+                distinct++;
+            } else {
+                Integer[] run = new Integer[end - start];
+                for (int i = start; i < end; i++) {
+                    run[i - start] = order[i];
+                }
+                Arrays.sort(run, Comparator.comparing((Integer i) -> texts[i]));
+                for (int i = 0; i < run.length; i++) {
+                    if (i > 0 && !texts[run[i]].equals(texts[run[i - 1]])) {
+                        distinct++;
+                    }
+                    rank[run[i]] = distinct;
+                }
+                distinct++;
+            }
+            start = end;
+        }
+        return distinct;
+    }
+
+    private static Comparator<StudentRecord> comparatorFor(Field field) {
+        switch (field) {
+            case ID: return StudentRecord.ID_ORDER;
+            case NAME: return (a, b) -> a.getName() == b.getName() ? 0 // Shared name, no need to fold
+                    : StudentNameIndex.fold(a.getName()).compareTo(StudentNameIndex.fold(b.getName()));
+            case MARKS: return Comparator.comparingDouble(StudentRecord::getMarks);
+            default: return Comparator.comparing(StudentRecord::getRankLevel);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            text.append(i == 0 ? "" : ", ").append(fields[i].name().toLowerCase()).append(descending[i] ? " DESC" : "");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package Baidemo;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Student Printer
+ *
+ * Display All for both console menus. Rows are appended field by field into one reused
+ * StringBuilder, encoded into a reused byte buffer and written in blocks of about 64 KB, so printing
+ * a large roster makes no strings per student and flushes the console once per block rather than
+ * once per line. Students are printed either as the usual "Student ID: .., Name: .." lines or as a
+ * table with aligned columns, and offset and limit select one page of the roster.
+ */
+public final class StudentPrinter {
+
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int MIN_ID_WIDTH = 10;
+    private static final int MIN_NAME_WIDTH = 20;
+    private static final int MARKS_WIDTH = 8;
+
+    public enum Format { LINES, TABLE }
+
+    private final PrintStream out;
+    private final CharsetEncoder encoder;
+    private final StringBuilder text = new StringBuilder(BLOCK_SIZE + 256);
+    private char[] chars = new char[BLOCK_SIZE + 256];
+    private ByteBuffer bytes;
+
+    public StudentPrinter(PrintStream out) {
+        this.out = out;
+        this.encoder = out.charset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocate((int) (chars.length * encoder.maxBytesPerChar()));
+    }
+
+    /**
+     * Prints up to limit students in storage order, skipping the first offset, and returns how many
+     * were printed. Skipped students are still visited, which costs a pass but no output.
+     */
+    public int print(StudentRepository students, Format format, int offset, int limit) {
+        int[] widths = {MIN_ID_WIDTH, MIN_NAME_WIDTH};
+        int[] position = {0};
+        if (format == Format.TABLE) {
+            students.forEach(student -> {
+                int i = position[0]++;
+                if (i >= offset && i - offset < limit) {
+                    widths[0] = Math.max(widths[0], student.getId().length());
+                    widths[1] = Math.max(widths[1], student.getName().length());
+                }
+            });
+            position[0] = 0;
+            appendCell("ID", widths[0]).append("  ");
+            appendCell("Name", widths[1]).append("  ");
+            appendCell("Marks", MARKS_WIDTH).append("  ").append("Rank").append('\n');
+            appendRule(widths[0]).append("  ");
+            appendRule(widths[1]).append("  ");
+            appendRule(MARKS_WIDTH).append("  ");
+            appendRule("Invalid Marks".length()).append('\n');
+        }
+        students.forEach(student -> {
+            int i = position[0]++;
+            if (i < offset || i - offset >= limit) {
+                return;
+            }
+            if (format == Format.TABLE) {
+                appendCell(student.getId(), widths[0]).append("  ");
+                appendCell(student.getName(), widths[1]).append("  ");
+                int start = text.length();
+                text.append(student.getMarks());
+                pad(start, MARKS_WIDTH).append("  ");
+            } else {
+                text.append("Student ID: ").append(student.getId())
+                        .append(", Name: ").append(student.getName())
+                        .append(", Marks: ").append(student.getMarks())
+                        .append(", Rank: ");
+            }
+            text.append(student.getRankLevel().toString()).append('\n');
+            if (text.length() >= BLOCK_SIZE) {
+                flush();
+            }
+        });
+        flush();
+        out.flush();
+        return Math.max(0, Math.min(position[0] - offset, limit));
+    }
+
+    private StringBuilder appendCell(String value, int width) {
+        int start = text.length();
+        text.append(value);
+        return pad(start, width);
+    }
+
+    private StringBuilder pad(int start, int width) {
+        for (int i = text.length() - start; i < width; i++) {
+            text.append(' ');
+        }
+        return text;
+    }
+
+    private StringBuilder appendRule(int width) {
+        for (int i = 0; i < width; i++) {
+            text.append('-');
+        }
+        return text;
+    }
+
+    /**
+     * Encodes the buffered text and writes it out. Blocks end at line breaks, so no character is
+     * split between two blocks.
+     */
+    private void flush() {
+        int length = text.length();
+        if (length == 0) {
+            return;
+        }
+        if (length > chars.length) {
+            chars = new char[length];
+            bytes = ByteBuffer.allocate((int) (length * encoder.maxBytesPerChar()));
+        }
+        text.getChars(0, length, chars, 0);
+        text.setLength(0);
+        CharBuffer in = CharBuffer.wrap(chars, 0, length);
+        encoder.reset();
+        CoderResult result;
+        do {
+            result = encoder.encode(in, bytes, true);
+            drain();
+        } while (result.isOverflow());
+        while (encoder.flush(bytes).isOverflow()) {
+            drain();
+        }
+        drain();
+    }
+
+    private void drain() {
+        out.write(bytes.array(), 0, bytes.position());
+        bytes.clear();
+    }
+}
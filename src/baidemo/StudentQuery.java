@@ -0,0 +1,579 @@
+package Baidemo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Student Query
+ *
+ * A compound search such as
+ *     marks >= 7.5 AND name startsWith "Nguyen" ORDER BY marks DESC LIMIT 50
+ * parsed once and then run against any repository. Conditions are joined by AND and test one field:
+ * id (= != < <= > >=), name (= != startsWith contains ~), marks (= != < <= > >=) or rank (= !=, by
+ * label such as "Very Good"). Keywords, fields and operators ignore case, and values containing
+ * spaces are written in quotes. Names compare ignoring case, ~ allows the same number of typing
+ * edits as the name search menus. Results are ordered by the ORDER BY keys (a StudentOrder) and then
+ * by ID; without ORDER BY they come in the order of the access path used.
+ *
+ * execute picks one access path from the indexes the repository reports: an ID lookup, then the
+ * name index (exact, prefix or similar names), an ID range, and a walk of the marks index from the
+ * end named by ORDER BY or a marks bound. Every condition is still checked on the students that path
+ * yields. Without a usable index the roster is scanned, in parallel once PARALLEL_THRESHOLD students
+ * are left to check. Results are streamed, so a LIMIT without ORDER BY stops the work at the last
+ * match, and ORDER BY with LIMIT keeps a bounded heap instead of sorting every match.
+ */
+public final class StudentQuery {
+
+    static final int PARALLEL_THRESHOLD = 1 << 15;
+    private static final int FIRST_WALK_BATCH = 64;
+    private static final int NO_LIMIT = -1;
+
+    private enum Operator {
+        EQ("="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">="), STARTS_WITH("startsWith"), CONTAINS("contains"),
+        SIMILAR("~");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        boolean isComparison() {
+            return this == LT || this == LE || this == GT || this == GE;
+        }
+
+        boolean holds(int cmp) {
+            switch (this) {
+                case EQ: return cmp == 0;
+                case NE: return cmp != 0;
+                case LT: return cmp < 0;
+                case LE: return cmp <= 0;
+                case GT: return cmp > 0;
+                case GE: return cmp >= 0;
+                default: throw new IllegalStateException("Not a comparison: " + symbol);
+            }
+        }
+    }
+
+    private static final class Condition {
+        final StudentOrder.Field field;
+        final Operator operator;
+        final String text;
+        final String folded;  // name conditions
+        final long idKey;     // id conditions
+        final double marks;   // marks conditions
+        final StudentRecord.Rank rank;
+        final int maxDistance; // ~ conditions
+
+        Condition(StudentOrder.Field field, Operator operator, String text) {
+            this.field = field;
+            this.operator = operator;
+            this.text = text;
+            this.folded = StudentNameIndex.fold(text);
+            this.idKey = StudentRecord.parseIdKey(text);
+            this.marks = field == StudentOrder.Field.MARKS ? parseMarks(text) : Double.NaN;
+            this.rank = field == StudentOrder.Field.RANK ? parseRank(text) : null;
+            this.maxDistance = StudentNameIndex.defaultDistance(text);
+        }
+
+        boolean test(StudentRecord student) {
+            switch (field) {
+                case ID:
+                    return operator.holds(StudentRecord.compareIds(student.getIdKey(), student.getId(), idKey, text));
+                case NAME:
+                    switch (operator) {
+                        case EQ: return student.getName().equalsIgnoreCase(text);
+                        case NE: return !student.getName().equalsIgnoreCase(text);
+                        case STARTS_WITH: return student.getName().regionMatches(true, 0, text, 0, text.length());
+                        case CONTAINS: return StudentNameIndex.fold(student.getName()).contains(folded);
+                        default:
+                            String name = StudentNameIndex.fold(student.getName());
+                            return StudentNameIndex.distance(folded, name, maxDistance) <= maxDistance;
+                    }
+                case MARKS:
+                    // Plain comparisons, so invalid (NaN) marks match nothing but !=
+                    double value = student.getMarks();
+                    switch (operator) {
+                        case EQ: return value == marks;
+                        case NE: return value != marks;
+                        case LT: return value < marks;
+                        case LE: return value <= marks;
+                        case GT: return value > marks;
+                        default: return value >= marks;
+                    }
+                default:
+                    return (student.getRankLevel() == rank) == (operator == Operator.EQ);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return field.name().toLowerCase() + " " + operator.symbol + " " + StudentServer.quote(text);
+        }
+    }
+
+    /**
+     * The access path chosen for one repository.
+     */
+    private static final class Plan {
+        final String description;
+        final Supplier<Stream<StudentRecord>> source;
+        final boolean yieldsMarksOrder; // Walks marks in the direction of the first sort key
+
+        Plan(String description, Supplier<Stream<StudentRecord>> source, boolean yieldsMarksOrder) {
+            this.description = description;
+            this.source = source;
+            this.yieldsMarksOrder = yieldsMarksOrder;
+        }
+    }
+
+    private final List<Condition> conditions;
+    private final StudentOrder order; // Null without ORDER BY
+    private final int limit;
+
+    private StudentQuery(List<Condition> conditions, StudentOrder order, int limit) {
+        this.conditions = conditions;
+        this.order = order;
+        this.limit = limit;
+    }
+
+    /**
+     * Parses a query, throwing IllegalArgumentException with the reason if it is malformed. An empty
+     * query matches every student.
+     */
+    public static StudentQuery parse(String text) {
+        return new Parser(text).query();
+    }
+
+    /**
+     * Runs the query. The stream reads the repository as it is consumed, so it should be used
+     * straight away.
+     */
+    public Stream<StudentRecord> execute(StudentRepository repository) {
+        if (limit == 0) {
+            return Stream.empty();
+        }
+        Plan plan = plan(repository);
+        Stream<StudentRecord> matches = plan.source.get().filter(this::matches);
+        if (order == null) {
+            return limit == NO_LIMIT ? matches : matches.limit(limit);
+        }
+        Comparator<StudentRecord> comparator = order.comparator();
+        if (plan.yieldsMarksOrder) {
+            return sortWalk(matches, comparator).stream();
+        }
+        if (limit == NO_LIMIT) {
+            StudentRecord[] sorted = matches.toArray(StudentRecord[]::new);
+            order.sort(sorted, 0, sorted.length);
+            return Arrays.stream(sorted);
+        }
+        SortEngine.BoundedHeap<StudentRecord> best = matches.collect(
+                () -> new SortEngine.BoundedHeap<>(limit, comparator), SortEngine.BoundedHeap::accept,
+                (left, right) -> right.toSortedList().forEach(left));
+        return best.toSortedList().stream();
+    }
+
+    /**
+     * Describes the access path execute would take on this repository.
+     */
+    public String explain(StudentRepository repository) {
+        return plan(repository).description;
+    }
+
+    private boolean matches(StudentRecord student) {
+        for (Condition condition : conditions) {
+            if (!condition.test(student)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches from a marks walk arrive sorted by the first key, so only ties need sorting: read up to
+     * the limit and on to the end of the last tie, then sort that.
+     */
+    private List<StudentRecord> sortWalk(Stream<StudentRecord> matches, Comparator<StudentRecord> comparator) {
+        List<StudentRecord> found = new ArrayList<>();
+        Iterator<StudentRecord> walk = matches.iterator();
+        while (walk.hasNext()) {
+            StudentRecord student = walk.next();
+            if (limit != NO_LIMIT && found.size() >= limit
+                    && Double.compare(student.getMarks(), found.get(found.size() - 1).getMarks()) != 0) {
+                break;
+            }
+            found.add(student);
+        }
+        found.sort(comparator);
+        return limit == NO_LIMIT || found.size() <= limit ? found : found.subList(0, limit);
+    }
+
+    private Plan plan(StudentRepository repository) {
+        Set<StudentRepository.Index> indexes = repository.indexes();
+        Condition idEquals = find(StudentOrder.Field.ID, Operator.EQ);
+        if (idEquals != null) {
+            return new Plan("ID lookup of " + idEquals.text,
+                    () -> Stream.ofNullable(repository.get(idEquals.text)), false);
+        }
+        if (indexes.contains(StudentRepository.Index.NAME)) {
+            Condition name = find(StudentOrder.Field.NAME, Operator.EQ);
+            if (name != null) {
+                return candidates("name index, exact " + name, () -> repository.findByName(name.text));
+            }
+        }
+        if (indexes.contains(StudentRepository.Index.ID_RANGE)) {
+            Plan range = idRange(repository);
+            if (range != null) {
+                return range;
+            }
+        }
+        if (indexes.contains(StudentRepository.Index.NAME)) {
+            Condition prefix = find(StudentOrder.Field.NAME, Operator.STARTS_WITH);
+            if (prefix != null) {
+                return candidates("name index, " + prefix,
+                        () -> repository.findByNamePrefix(prefix.text, Integer.MAX_VALUE));
+            }
+            Condition similar = find(StudentOrder.Field.NAME, Operator.SIMILAR);
+            if (similar != null) {
+                return candidates("name index, " + similar,
+                        () -> repository.findByNameFuzzy(similar.text, similar.maxDistance, Integer.MAX_VALUE));
+            }
+        }
+        if (indexes.contains(StudentRepository.Index.MARKS)) {
+            Plan walk = marksWalk(repository);
+            if (walk != null) {
+                return walk;
+            }
+        }
+        return candidates("scan of every student", () -> {
+            List<StudentRecord> all = repository.all();
+            if (StudentMetrics.ENABLED) {
+                StudentMetrics.get().scanned(all.size());
+            }
+            return all;
+        });
+    }
+
+    private Condition find(StudentOrder.Field field, Operator operator) {
+        for (Condition condition : conditions) {
+            if (condition.field == field && condition.operator == operator) {
+                return condition;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks the conditions over a list of candidates, in parallel if the list is long enough.
+     */
+    private Plan candidates(String description, Supplier<List<StudentRecord>> source) {
+        return new Plan(description, () -> {
+            List<StudentRecord> students = source.get();
+            boolean parallel = !conditions.isEmpty() && students.size() >= PARALLEL_THRESHOLD;
+            return parallel ? students.parallelStream() : students.stream();
+        }, false);
+    }
+
+    /**
+     * Reads the ID index between the tightest bounds given, if there is an upper one. "0" sorts before
+     * every valid ID, so a missing lower bound is not a problem; a missing upper one is.
+     */
+    private Plan idRange(StudentRepository repository) {
+        Condition lower = null;
+        Condition upper = null;
+        for (Condition condition : conditions) {
+            if (condition.field != StudentOrder.Field.ID || !condition.operator.isComparison()) {
+                continue;
+            }
+            boolean isLower = condition.operator == Operator.GT || condition.operator == Operator.GE;
+            Condition current = isLower ? lower : upper;
+            int cmp = current == null ? 0
+                    : StudentRecord.compareIds(condition.idKey, condition.text, current.idKey, current.text);
+            if (current == null || (isLower ? cmp > 0 : cmp < 0)) {
+                if (isLower) {
+                    lower = condition;
+                } else {
+                    upper = condition;
+                }
+            }
+        }
+        if (upper == null) {
+            return null;
+        }
+        String fromId = lower != null ? lower.text : "0";
+        String toId = upper.text;
+        return candidates("ID index from " + fromId + " to " + toId, () -> repository.findByIdRange(fromId, toId));
+    }
+
+    /**
+     * Walks the marks index from the top or the bottom, as the first sort key or a marks bound asks,
+     * and stops at the first student past the bound on the far side.
+     */
+    private Plan marksWalk(StudentRepository repository) {
+        double floor = Double.NEGATIVE_INFINITY;
+        double ceiling = Double.POSITIVE_INFINITY;
+        boolean bounded = false;
+        for (Condition condition : conditions) {
+            if (condition.field != StudentOrder.Field.MARKS || condition.operator == Operator.NE) {
+                continue;
+            }
+            if (condition.operator != Operator.LT && condition.operator != Operator.LE) {
+                floor = Math.max(floor, condition.marks);
+                bounded = true;
+            }
+            if (condition.operator != Operator.GT && condition.operator != Operator.GE) {
+                ceiling = Math.min(ceiling, condition.marks);
+                bounded = true;
+            }
+        }
+        boolean sortsByMarks = order != null && order.firstField() == StudentOrder.Field.MARKS;
+        if (!sortsByMarks && !bounded) {
+            return null;
+        }
+        boolean fromTop = sortsByMarks ? order.isFirstDescending() : floor != Double.NEGATIVE_INFINITY;
+        double stop = fromTop ? floor : ceiling;
+        String description = "marks index from the " + (fromTop ? "top" : "bottom");
+        return new Plan(description, () -> {
+            Stream<StudentRecord> walk = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                    new MarksWalk(repository, fromTop), Spliterator.ORDERED | Spliterator.NONNULL), false);
+            if (Double.isInfinite(stop) || Double.isNaN(stop)) {
+                return walk;
+            }
+            // The walk follows Double.compare, which puts NaN marks above every bound
+            return walk.takeWhile(student -> fromTop
+                    ? Double.compare(student.getMarks(), stop) >= 0
+                    : Double.compare(student.getMarks(), stop) <= 0);
+        }, sortsByMarks);
+    }
+
+    /**
+     * Pages through topByMarks or bottomByMarks, doubling the page each time, so reading n students
+     * costs O(n) on a marks index however far the walk goes.
+     */
+    private static final class MarksWalk implements Iterator<StudentRecord> {
+        private final StudentRepository repository;
+        private final boolean fromTop;
+        private List<StudentRecord> page = Collections.emptyList();
+        private int next;
+        private boolean exhausted;
+
+        MarksWalk(StudentRepository repository, boolean fromTop) {
+            this.repository = repository;
+            this.fromTop = fromTop;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < page.size()) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            int k = (int) Math.min(Math.max(FIRST_WALK_BATCH, 2L * page.size()), Integer.MAX_VALUE);
+            page = fromTop ? repository.topByMarks(k) : repository.bottomByMarks(k);
+            exhausted = page.size() < k;
+            return next < page.size();
+        }
+
+        @Override
+        public StudentRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.get(next++);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Condition condition : conditions) {
+            text.append(text.length() == 0 ? "" : " AND ").append(condition);
+        }
+        if (order != null) {
+            text.append(text.length() == 0 ? "" : " ").append("ORDER BY ").append(order);
+        }
+        if (limit != NO_LIMIT) {
+            text.append(text.length() == 0 ? "" : " ").append("LIMIT ").append(limit);
+        }
+        return text.toString();
+    }
+
+    private static double parseMarks(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid marks: " + value);
+        }
+    }
+
+    private static StudentRecord.Rank parseRank(String value) {
+        for (StudentRecord.Rank rank : StudentRecord.Rank.values()) {
+            if (rank.toString().equalsIgnoreCase(value) || rank.name().equalsIgnoreCase(value)) {
+                return rank;
+            }
+        }
+        throw new IllegalArgumentException("Unknown rank: " + value);
+    }
+
+    /**
+     * Recursive descent over the tokens of one query.
+     */
+    private static final class Parser {
+        private static final String SYMBOLS = "=!<>~,";
+
+        private final List<String> tokens = new ArrayList<>();
+        private final List<Boolean> quoted = new ArrayList<>();
+        private int position;
+
+        Parser(String text) {
+            int i = 0;
+            while (i < text.length()) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '"' || c == '\'') {
+                    StringBuilder value = new StringBuilder();
+                    int j = i + 1;
+                    while (j < text.length() && text.charAt(j) != c) {
+                        if (text.charAt(j) == '\\' && j + 1 < text.length()) {
+                            j++;
+                        }
+                        value.append(text.charAt(j++));
+                    }
+                    if (j == text.length()) {
+                        throw new IllegalArgumentException("Unclosed quote at position " + (i + 1));
+                    }
+                    add(value.toString(), true);
+                    i = j + 1;
+                } else if (SYMBOLS.indexOf(c) >= 0) {
+                    int j = i + 1;
+                    if (j < text.length() && text.charAt(j) == '=' && c != ',' && c != '~'
+                            || c == '<' && j < text.length() && text.charAt(j) == '>') {
+                        j++;
+                    }
+                    add(text.substring(i, j), false);
+                    i = j;
+                } else {
+                    int j = i;
+                    while (j < text.length() && !Character.isWhitespace(text.charAt(j))
+                            && SYMBOLS.indexOf(text.charAt(j)) < 0 && text.charAt(j) != '"' && text.charAt(j) != '\'') {
+                        j++;
+                    }
+                    add(text.substring(i, j), false);
+                    i = j;
+                }
+            }
+        }
+
+        private void add(String token, boolean isQuoted) {
+            tokens.add(token);
+            quoted.add(isQuoted);
+        }
+
+        StudentQuery query() {
+            List<Condition> conditions = new ArrayList<>();
+            if (position < tokens.size() && !isKeyword("ORDER") && !isKeyword("LIMIT")) {
+                do {
+                    conditions.add(condition());
+                } while (acceptKeyword("AND"));
+            }
+            StudentOrder order = null;
+            if (acceptKeyword("ORDER")) {
+                if (!acceptKeyword("BY")) {
+                    throw new IllegalArgumentException("Expected BY after ORDER");
+                }
+                do {
+                    StudentOrder.Field field = field();
+                    boolean descending = acceptKeyword("DESC");
+                    if (!descending) {
+                        acceptKeyword("ASC");
+                    }
+                    order = order == null ? StudentOrder.by(field, descending) : order.then(field, descending);
+                } while (acceptKeyword(","));
+            }
+            int limit = NO_LIMIT;
+            if (acceptKeyword("LIMIT")) {
+                String value = next("a number after LIMIT");
+                try {
+                    limit = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid limit: " + value);
+                }
+                if (limit < 0) {
+                    throw new IllegalArgumentException("Invalid limit: " + value);
+                }
+            }
+            if (position < tokens.size()) {
+                throw new IllegalArgumentException("Unexpected " + tokens.get(position)
+                        + " (expected AND, ORDER BY, LIMIT or the end of the query)");
+            }
+            return new StudentQuery(conditions, order, limit);
+        }
+
+        private Condition condition() {
+            StudentOrder.Field field = field();
+            String symbol = next("an operator after " + field.name().toLowerCase());
+            Operator operator = null;
+            for (Operator candidate : Operator.values()) {
+                if (candidate.symbol.equalsIgnoreCase(symbol)) {
+                    operator = candidate;
+                }
+            }
+            if (symbol.equals("==")) {
+                operator = Operator.EQ;
+            } else if (symbol.equals("<>")) {
+                operator = Operator.NE;
+            }
+            if (operator == null || !allows(field, operator)) {
+                throw new IllegalArgumentException("Operator " + symbol + " does not apply to "
+                        + field.name().toLowerCase());
+            }
+            return new Condition(field, operator, next("a value after " + symbol));
+        }
+
+        private static boolean allows(StudentOrder.Field field, Operator operator) {
+            switch (field) {
+                case NAME: return !operator.isComparison();
+                case RANK: return operator == Operator.EQ || operator == Operator.NE;
+                default: return operator.ordinal() <= Operator.GE.ordinal();
+            }
+        }
+
+        private StudentOrder.Field field() {
+            return StudentOrder.parseField(next("a field (id, name, marks or rank)"));
+        }
+
+        private String next(String expected) {
+            if (position == tokens.size()) {
+                throw new IllegalArgumentException("Query ends early; expected " + expected);
+            }
+            return tokens.get(position++);
+        }
+
+        private boolean isKeyword(String keyword) {
+            return position < tokens.size() && !quoted.get(position) && tokens.get(position).equalsIgnoreCase(keyword);
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (isKeyword(keyword)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+    }
+}
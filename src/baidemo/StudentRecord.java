@@ -1,20 +1,72 @@
 package Baidemo;
 
+import java.util.Comparator;
+
 public class StudentRecord {
+    // Sort key for IDs that are not plain numbers of up to 18 digits; they order after numeric IDs
+    public static final long NON_NUMERIC_ID = Long.MAX_VALUE;
+    static final int MAX_ID_DIGITS = 18;
+
+    public static final Comparator<StudentRecord> ID_ORDER =
+            (a, b) -> compareIds(a.idKey, a.id, b.idKey, b.id);
+    // Highest marks first, ties in ID order; no two students compare equal
+    public static final Comparator<StudentRecord> LEADERBOARD_ORDER = (a, b) -> {
+        int byMarks = Double.compare(b.marks, a.marks);
+        return byMarks != 0 ? byMarks : compareIds(a.idKey, a.id, b.idKey, b.id);
+    };
+
     private String id;
+    private final long idKey;
     private String name;
     private double marks;
+    private Rank rank; // Derived from marks whenever they are set
+
+    /**
+     * Grade bands by marks, in ascending order.
+     */
+    public enum Rank {
+        FAIL("Fail"), MEDIUM("Medium"), GOOD("Good"), VERY_GOOD("Very Good"), EXCELLENT("Excellent"),
+        INVALID("Invalid Marks");
+
+        private final String label;
+
+        Rank(String label) {
+            this.label = label;
+        }
+
+        public static Rank of(double marks) {
+            // One comparison per band; NaN fails every test and ends up INVALID
+            if (!(marks >= 0)) return INVALID;
+            if (marks < 5.0) return FAIL;
+            if (marks < 6.5) return MEDIUM;
+            if (marks < 7.5) return GOOD;
+            if (marks < 9.0) return VERY_GOOD;
+            if (marks <= 10.0) return EXCELLENT;
+            return INVALID;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
 
     public StudentRecord(String id, String name, double marks) {
         this.id = id;
+        this.idKey = parseIdKey(id);
         this.name = name;
         this.marks = marks;
+        this.rank = Rank.of(marks);
     }
 
     public String getId() {
         return id;
     }
 
+    public long getIdKey() {
+        return idKey;
+    }
+
     public String getName() {
         return name;
     }
@@ -29,25 +81,47 @@ public class StudentRecord {
 
     public void setMarks(double marks) {
         this.marks = marks;
+        this.rank = Rank.of(marks);
     }
 
     public String getRank() {
-        if (marks >= 0 && marks < 5.0) {
-            return "Fail";
-        } else if (marks >= 5.0 && marks < 6.5) {
-            return "Medium";
-        } else if (marks >= 6.5 && marks < 7.5) {
-            return "Good";
-        } else if (marks >= 7.5 && marks < 9.0) {
-            return "Very Good";
-        } else if (marks >= 9.0 && marks <= 10.0) {
-            return "Excellent";
+        return rank.toString();
+    }
+
+    public Rank getRankLevel() {
+        return rank;
+    }
+
+    /**
+     * Parses an ID into its numeric sort key, or NON_NUMERIC_ID if it is not 1 to 18 digits.
+     */
+    public static long parseIdKey(String id) {
+        int length = id.length();
+        if (length == 0 || length > MAX_ID_DIGITS) {
+            return NON_NUMERIC_ID;
+        }
+        long key = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = id.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NON_NUMERIC_ID;
+            }
+            key = key * 10 + digit;
         }
-        return "Invalid Marks";
+        return key;
+    }
+
+    /**
+     * Orders IDs numerically by key, falling back to the ID text when keys are equal
+     * (non-numeric IDs, or leading zeros).
+     */
+    public static int compareIds(long key1, String id1, long key2, String id2) {
+        int cmp = Long.compare(key1, key2);
+        return cmp != 0 ? cmp : id1.compareTo(id2);
     }
 
     @Override
     public String toString() {
-        return "Student ID: " + id + ", Name: " + name + ", Marks: " + marks + ", Rank: " + getRank();
+        return "Student ID: " + id + ", Name: " + name + ", Marks: " + marks + ", Rank: " + rank;
     }
 }
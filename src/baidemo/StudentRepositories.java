@@ -0,0 +1,196 @@
+package Baidemo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.function.Predicate;
+
+/**
+ * Student Repositories
+ *
+ * Creates repository backends by name and moves whole rosters between a repository and the
+ * snapshot file. The console menus pick their backend with -Dstudents.backend=list|array|indexed|column|concurrent|mapped;
+ * the mapped backend keeps its records in students.dat.
+ */
+public final class StudentRepositories {
+
+    public static final String BACKEND_PROPERTY = "students.backend";
+    public static final String MAPPED_FILE_NAME = "students.dat";
+
+    private StudentRepositories() {
+    }
+
+    /**
+     * Creates the backend named by the system property, or the given default.
+     */
+    public static StudentRepository fromProperty(String defaultBackend) throws IOException {
+        return create(System.getProperty(BACKEND_PROPERTY, defaultBackend));
+    }
+
+    public static StudentRepository create(String backend) throws IOException {
+        switch (backend.toLowerCase()) {
+            case "list": return new LinkedListStudentRepository();
+            case "array": return new ArrayStudentRepository();
+            case "indexed": return new IndexedStudentRepository();
+            case "column": return new ColumnStudentRepository();
+            case "concurrent": return new ConcurrentStudentRepository();
+            case "mapped": return new MappedStudentRepository(Paths.get(MAPPED_FILE_NAME));
+            default:
+                throw new IllegalArgumentException("Unknown student backend: " + backend
+                        + " (expected list, array, indexed, column, concurrent or mapped)");
+        }
+    }
+
+    /**
+     * Outcome of loading a roster file into a repository.
+     */
+    public static final class LoadResult {
+        private final int loaded;
+        private final int skipped;
+        private final long malformedLines;
+
+        LoadResult(int loaded, int skipped, long malformedLines) {
+            this.loaded = loaded;
+            this.skipped = skipped;
+            this.malformedLines = malformedLines;
+        }
+
+        public int getLoaded() {
+            return loaded;
+        }
+
+        /** Records rejected for an invalid or duplicate ID. */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public long getMalformedLines() {
+            return malformedLines;
+        }
+    }
+
+    /**
+     * Adds every record of a snapshot or CSV file whose ID passes the check and is not taken yet.
+     * A missing file loads nothing.
+     */
+    public static LoadResult load(StudentRepository repository, Path file, Predicate<String> validId) throws IOException {
+        if (!Files.exists(file)) {
+            return new LoadResult(0, 0, 0);
+        }
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().read(Files.size(file));
+        }
+        List<StudentRecord> records;
+        long malformed = 0;
+        if (StudentSnapshot.isSnapshot(file)) {
+            records = StudentSnapshot.read(file, StudentRecord::new);
+        } else {
+            StudentCsvLoader.Result<StudentRecord> result = StudentCsvLoader.load(file, StudentRecord::new);
+            records = result.getRecords();
+            malformed = result.getMalformedLines();
+        }
+        int loaded = 0;
+        int skipped = 0;
+        for (StudentRecord student : records) {
+            boolean added;
+            try {
+                added = validId.test(student.getId()) && repository.add(student);
+            } catch (IllegalArgumentException e) {
+                added = false;
+            }
+            if (added) {
+                loaded++;
+            } else {
+                skipped++;
+            }
+        }
+        return new LoadResult(loaded, skipped, malformed);
+    }
+
+    /**
+     * Writes the roster in the configured snapshot format.
+     */
+    public static void save(StudentRepository repository, Path file) throws IOException {
+        snapshotWriter(repository).write(file);
+    }
+
+    /**
+     * Copies the roster so the snapshot can be written on another thread while the repository keeps changing.
+     */
+    public static StudentJournal.SnapshotWriter snapshotWriter(StudentRepository repository) {
+        // Sized from the copy, since a concurrent backend may change size while it is taken
+        List<StudentRecord> students = repository.all();
+        int n = students.size();
+        String[] ids = new String[n];
+        String[] names = new String[n];
+        double[] marks = new double[n];
+        for (int i = 0; i < n; i++) {
+            StudentRecord student = students.get(i);
+            ids[i] = student.getId();
+            names[i] = student.getName();
+            marks[i] = student.getMarks();
+        }
+        return target -> {
+            StudentSnapshot.writeConfigured(target, ids, names, marks, n);
+            if (StudentMetrics.ENABLED) {
+                StudentMetrics.get().written(Files.size(target));
+            }
+        };
+    }
+
+    /**
+     * Zero-based position, from the lowest marks, of the nearest-rank percentile among n students,
+     * or -1 if n is 0.
+     */
+    static int percentileRank(double percent, int n) {
+        if (!(percent >= 0 && percent <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percent);
+        }
+        if (n == 0) {
+            return -1;
+        }
+        return (int) Math.max(0, Math.ceil(percent / 100 * n) - 1);
+    }
+
+    /**
+     * The first k students of a marks index, which is already in leaderboard order or its reverse.
+     */
+    static List<StudentRecord> firstOf(Iterable<StudentRecord> index, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        List<StudentRecord> first = new ArrayList<>(Math.min(k, 1 << 16));
+        Iterator<StudentRecord> it = index.iterator();
+        while (first.size() < k && it.hasNext()) {
+            first.add(it.next());
+        }
+        return first;
+    }
+
+    /**
+     * The student at the nearest-rank percentile of a marks index holding n students, walking from
+     * whichever end is closer, or only forwards where descending steps are slow (a skip list searches
+     * again for every one). If students were removed meanwhile, the last one reached is returned.
+     */
+    static StudentRecord atPercentile(NavigableSet<StudentRecord> byMarks, int n, double percent,
+            boolean cheapDescent) {
+        int rank = percentileRank(percent, n);
+        if (rank < 0) {
+            return null;
+        }
+        // byMarks runs from the highest marks, so the lowest-first position rank is n - 1 - rank from its start
+        boolean fromTop = !cheapDescent || n - 1 - rank <= rank;
+        Iterator<StudentRecord> it = fromTop ? byMarks.iterator() : byMarks.descendingIterator();
+        int steps = fromTop ? n - 1 - rank : rank;
+        StudentRecord student = null;
+        for (int i = 0; i <= steps && it.hasNext(); i++) {
+            student = it.next();
+        }
+        return student;
+    }
+}
@@ -0,0 +1,270 @@
+package Baidemo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Student Repository
+ *
+ * Storage engine behind the console menus. Operations return results instead of printing, so the
+ * same repository can be driven from batch jobs and benchmarks. Backends differ only in cost:
+ * LinkedListStudentRepository scans, ArrayStudentRepository scans but finds IDs by hash,
+ * IndexedStudentRepository keeps hash and ordered ID indexes, ColumnStudentRepository and
+ * MappedStudentRepository store primitive columns in memory or in a mapped file.
+ *
+ * Students are identified by their exact ID text. Records handed out may be live objects of the
+ * backend, so changes must go through update.
+ */
+public interface StudentRepository extends Closeable {
+
+    /**
+     * Searches a backend answers from an index rather than a scan: ID ranges, names (exact, prefix
+     * and similar) and marks order (topByMarks and bottomByMarks). StudentQuery plans with these.
+     */
+    enum Index { ID_RANGE, NAME, MARKS }
+
+    /**
+     * Adds a student, returning false if a student with the same ID already exists.
+     */
+    boolean add(StudentRecord student);
+
+    /**
+     * Adds every student whose ID is not taken yet and returns how many were added.
+     */
+    default int addAll(Iterable<StudentRecord> students) {
+        int added = 0;
+        for (StudentRecord student : students) {
+            if (add(student)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Returns the student with this ID, or null.
+     */
+    StudentRecord get(String id);
+
+    /**
+     * Replaces the name and marks of a student, returning false if the ID is unknown.
+     */
+    boolean update(String id, String name, double marks);
+
+    /**
+     * Removes a student and returns it, or null if the ID is unknown.
+     */
+    StudentRecord delete(String id);
+
+    /**
+     * Students whose name equals the given one ignoring case. Scanning backends return them in storage
+     * order, name indexes in ID order.
+     */
+    default List<StudentRecord> findByName(String name) {
+        List<StudentRecord> found = new ArrayList<>();
+        forEach(student -> {
+            if (student.getName().equalsIgnoreCase(name)) {
+                found.add(student);
+            }
+        });
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(size());
+        }
+        return found;
+    }
+
+    /**
+     * Up to limit students whose name starts with the prefix ignoring case, ordered by name ignoring
+     * case and then by ID.
+     */
+    default List<StudentRecord> findByNamePrefix(String prefix, int limit) {
+        List<StudentRecord> found = new ArrayList<>();
+        forEach(student -> {
+            if (student.getName().regionMatches(true, 0, prefix, 0, prefix.length())) {
+                found.add(student);
+            }
+        });
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(size());
+        }
+        Comparator<StudentRecord> byName = Comparator.comparing(student -> StudentNameIndex.fold(student.getName()));
+        found.sort(byName.thenComparing(StudentRecord.ID_ORDER));
+        return found.subList(0, Math.min(limit, found.size()));
+    }
+
+    /**
+     * Up to limit students whose name is within maxDistance typing edits of the given one ignoring
+     * case (an insertion, deletion, substitution or swap of neighbouring letters each count as one),
+     * closest first, then by name and ID.
+     */
+    default List<StudentRecord> findByNameFuzzy(String name, int maxDistance, int limit) {
+        String query = StudentNameIndex.fold(name);
+        Map<StudentRecord, Integer> distances = new HashMap<>();
+        forEach(student -> {
+            int distance = StudentNameIndex.distance(query, StudentNameIndex.fold(student.getName()), maxDistance);
+            if (distance <= maxDistance) {
+                distances.put(student, distance);
+            }
+        });
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(size());
+        }
+        List<StudentRecord> found = new ArrayList<>(distances.keySet());
+        Comparator<StudentRecord> byDistance = Comparator.comparing(distances::get);
+        found.sort(byDistance.thenComparing(student -> StudentNameIndex.fold(student.getName()))
+                .thenComparing(StudentRecord.ID_ORDER));
+        return found.subList(0, Math.min(limit, found.size()));
+    }
+
+    /**
+     * Students with fromId <= ID <= toId in ID order.
+     */
+    default List<StudentRecord> findByIdRange(String fromId, String toId) {
+        long fromKey = StudentRecord.parseIdKey(fromId);
+        long toKey = StudentRecord.parseIdKey(toId);
+        List<StudentRecord> found = new ArrayList<>();
+        forEach(student -> {
+            if (StudentRecord.compareIds(student.getIdKey(), student.getId(), fromKey, fromId) >= 0
+                    && StudentRecord.compareIds(student.getIdKey(), student.getId(), toKey, toId) <= 0) {
+                found.add(student);
+            }
+        });
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(size());
+        }
+        found.sort(StudentRecord.ID_ORDER);
+        return found;
+    }
+
+    /**
+     * The k students with the highest marks, best first, ties in ID order (LEADERBOARD_ORDER).
+     * Scanning backends keep a bounded heap, O(n log k); backends with a marks index walk it instead.
+     */
+    default List<StudentRecord> topByMarks(int k) {
+        SortEngine.BoundedHeap<StudentRecord> top = new SortEngine.BoundedHeap<>(k, StudentRecord.LEADERBOARD_ORDER);
+        forEach(top);
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(size());
+        }
+        return top.toSortedList();
+    }
+
+    /**
+     * The k students with the lowest marks, worst first: the end of the leaderboard read backwards.
+     */
+    default List<StudentRecord> bottomByMarks(int k) {
+        SortEngine.BoundedHeap<StudentRecord> bottom =
+                new SortEngine.BoundedHeap<>(k, StudentRecord.LEADERBOARD_ORDER.reversed());
+        forEach(bottom);
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(size());
+        }
+        return bottom.toSortedList();
+    }
+
+    /**
+     * The student at the given percentile of marks by the nearest-rank method, counting from the
+     * lowest marks, or null if there are no students. Quickselect over a copy, expected O(n).
+     */
+    default StudentRecord atMarksPercentile(double percent) {
+        int rank = StudentRepositories.percentileRank(percent, size());
+        if (rank < 0) {
+            return null;
+        }
+        StudentRecord[] students = all().toArray(new StudentRecord[0]);
+        if (StudentMetrics.ENABLED) {
+            StudentMetrics.get().scanned(students.length);
+        }
+        if (students.length == 0) {
+            return null;
+        }
+        // The roster may have changed size since size() was read
+        rank = Math.min(rank, students.length - 1);
+        Comparator<StudentRecord> ascending = StudentRecord.LEADERBOARD_ORDER.reversed();
+        return SortEngine.select(students, 0, students.length, rank, ascending);
+    }
+
+    /**
+     * Reorders the stored students. The radix key is only used by radix sort and may be null otherwise.
+     */
+    void sort(SortEngine.Algorithm algorithm, Comparator<? super StudentRecord> order,
+            ToLongFunction<? super StudentRecord> radixKey);
+
+    default void sortById(SortEngine.Algorithm algorithm) {
+        sort(algorithm, StudentRecord.ID_ORDER, StudentRecord::getIdKey);
+        if (algorithm == SortEngine.Algorithm.RADIX) {
+            // Non-numeric IDs share one radix key; an already sorted merge pass orders them by text in O(n)
+            sort(SortEngine.Algorithm.MERGE, StudentRecord.ID_ORDER, null);
+        }
+    }
+
+    default void sortByMarks(SortEngine.Algorithm algorithm) {
+        sort(algorithm, Comparator.comparingDouble(StudentRecord::getMarks),
+                student -> SortEngine.sortableKey(student.getMarks()));
+    }
+
+    /**
+     * A copy of the roster in the given order, leaving the stored order as it is.
+     */
+    default List<StudentRecord> sortedBy(StudentOrder order) {
+        StudentRecord[] students = all().toArray(new StudentRecord[0]);
+        order.sort(students, 0, students.length);
+        return Arrays.asList(students);
+    }
+
+    /**
+     * Visits every student in storage order.
+     */
+    void forEach(Consumer<? super StudentRecord> action);
+
+    /**
+     * Copies every student into a list, in storage order.
+     */
+    default List<StudentRecord> all() {
+        List<StudentRecord> students = new ArrayList<>(size());
+        forEach(students::add);
+        return students;
+    }
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * The indexes this repository keeps; none for a scanning backend.
+     */
+    default Set<Index> indexes() {
+        return EnumSet.noneOf(Index.class);
+    }
+
+    /**
+     * True if the backend keeps the records it is given, so students can share one name String; false
+     * for backends that store columns and build a record on every read.
+     */
+    default boolean storesRecords() {
+        return true;
+    }
+
+    /**
+     * True if the backend keeps its data on disk by itself and needs no snapshot or journal.
+     */
+    default boolean isPersistent() {
+        return false;
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,623 @@
+package Baidemo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.management.JMException;
+
+/**
+ * Student Server
+ *
+ * HTTP/JSON front end over the same repository, snapshot and journal as the console menus. Every
+ * request runs on its own virtual thread and the default backend is ConcurrentStudentRepository, so
+ * lookups never wait on each other. Start it with
+ * java Baidemo.StudentManagementSystem --server [port] (8080 by default).
+ *
+ * GET    /students?sort=..&offset=&limit=          list, optionally as a sorted copy (sort=marks DESC,name)
+ * POST   /students                                add {"id":..,"name":..,"marks":..}
+ * GET    /students/{id}                           one student
+ * PUT    /students/{id}                           edit {"name":..,"marks":..}
+ * DELETE /students/{id}                           delete
+ * GET    /students/{id}/rank                      rank of one student
+ * GET    /search?name=.. or ?from=..&to=..        name or ID range search
+ * GET    /search?prefix=..&limit= or ?fuzzy=..&distance=&limit=   name prefix or typo-tolerant search
+ * POST   /sort?by=id|marks&algorithm=merge|tim|radix|parallel|bubble|selection   reorder the roster
+ * POST   /sort?order=rank DESC,marks DESC,name,id      reorder the roster by several keys
+ * GET    /ranks                                   number of students per rank
+ * GET    /leaderboard?order=top|bottom&offset=&limit=   students by marks, best (or worst) first
+ * GET    /percentile?p=..                         student at the nearest-rank marks percentile
+ * GET    /stats                                   rank counts, marks histogram, mean, min, max, percentiles, cache hits
+ * GET    /query?q=..                              compound query (see StudentQuery); &explain for its plan
+ * GET    /metrics                                 operation counts and latency percentiles (see StudentMetrics)
+ *
+ * Given a StudentStatistics kept by a StatisticsStudentRepository, /ranks and /stats answer from the
+ * running aggregates instead of scanning the roster. Added and edited students are checked with the
+ * same StudentValidator rules as the console (NUMERIC_IDS unless given others); a record that breaks
+ * them is refused with 400. Requests run concurrently, so main only serves the concurrent backend.
+ */
+public class StudentServer {
+
+    private static final String FILE_NAME = "students.txt";
+    private static final String JOURNAL_FILE_NAME = "students.journal";
+    private static final int DEFAULT_PORT = 8080;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private final StudentRepository students;
+    private final StudentStatistics statistics; // Null if the roster has to be scanned instead
+    private final CachingStudentRepository cache; // Null if results are not cached
+    private final StudentValidator validator;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public StudentServer(StudentRepository students, int port) throws IOException {
+        this(students, null, port);
+    }
+
+    public StudentServer(StudentRepository students, StudentStatistics statistics, int port) throws IOException {
+        this(students, statistics, null, port);
+    }
+
+    public StudentServer(StudentRepository students, StudentStatistics statistics, CachingStudentRepository cache,
+            int port) throws IOException {
+        this(students, statistics, cache, StudentValidator.NUMERIC_IDS, port);
+    }
+
+    public StudentServer(StudentRepository students, StudentStatistics statistics, CachingStudentRepository cache,
+            StudentValidator validator, int port) throws IOException {
+        this.students = students;
+        this.statistics = statistics;
+        this.cache = cache;
+        this.validator = validator;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/students", exchange -> handle(exchange, this::students));
+        server.createContext("/search", exchange -> handle(exchange, this::search));
+        server.createContext("/sort", exchange -> handle(exchange, this::sort));
+        server.createContext("/ranks", exchange -> handle(exchange, this::ranks));
+        server.createContext("/stats", exchange -> handle(exchange, this::stats));
+        server.createContext("/leaderboard", exchange -> handle(exchange, this::leaderboard));
+        server.createContext("/percentile", exchange -> handle(exchange, this::percentile));
+        server.createContext("/query", exchange -> handle(exchange, this::query));
+        server.createContext("/metrics", exchange -> handle(exchange, this::metrics));
+        server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String backendName = System.getProperty(StudentRepositories.BACKEND_PROPERTY, "concurrent");
+        if (!backendName.equalsIgnoreCase("concurrent")) {
+            // Every other backend assumes one caller at a time and would be corrupted by concurrent requests
+            System.out.println("The server needs the thread-safe concurrent backend, not " + backendName
+                    + " (-D" + StudentRepositories.BACKEND_PROPERTY + "=concurrent).");
+            return;
+        }
+        StudentMetrics metrics = StudentMetrics.get();
+        long start = metrics.start();
+        StudentRepository backend = StudentRepositories.create(backendName);
+        JournaledStudentRepository journal = null;
+        if (!backend.isPersistent()) {
+            StudentRepositories.LoadResult result = StudentRepositories.load(backend, Paths.get(FILE_NAME), id -> true);
+            System.out.println("Loaded " + result.getLoaded() + " students.");
+        }
+        StatisticsStudentRepository counted = new StatisticsStudentRepository(new NameIndexedStudentRepository(backend));
+        CachingStudentRepository cache = new CachingStudentRepository(counted);
+        backend = cache;
+        if (!backend.isPersistent()) {
+            journal = JournaledStudentRepository.open(backend, Paths.get(FILE_NAME), Paths.get(JOURNAL_FILE_NAME));
+            backend = journal;
+        }
+        metrics.stop(StudentMetrics.Operation.LOAD, start);
+        if (StudentMetrics.ENABLED) {
+            backend = new MetricsStudentRepository(backend);
+            try {
+                metrics.registerMBeans();
+            } catch (JMException e) {
+                System.out.println("Error publishing metrics over JMX: " + e.getMessage());
+            }
+        }
+        StudentServer server = new StudentServer(backend, counted.getStatistics(), cache, port);
+        JournaledStudentRepository saved = journal;
+        StudentRepository repository = backend;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            try {
+                if (saved != null) {
+                    long saveStart = metrics.start();
+                    saved.save();
+                    metrics.stop(StudentMetrics.Operation.SAVE, saveStart);
+                }
+                repository.close();
+            } catch (IOException e) {
+                System.out.println("Error saving students to file: " + e.getMessage());
+            }
+        }));
+        server.start();
+        System.out.println("Student server listening on port " + server.getPort() + ".");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * A status code and a JSON body.
+     */
+    static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private interface Handler {
+        Response handle(String method, String path, Map<String, String> query, String body);
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        try {
+            URI uri = exchange.getRequestURI();
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            response = handler.handle(exchange.getRequestMethod(), uri.getRawPath(), parseQuery(uri.getRawQuery()), body);
+        } catch (IllegalArgumentException e) {
+            response = error(400, e.getMessage());
+        } catch (UnsupportedOperationException e) {
+            response = error(409, e.getMessage());
+        } catch (UncheckedIOException e) {
+            response = error(500, e.getMessage());
+        } catch (RuntimeException e) {
+            response = error(500, "Internal error: " + e);
+        }
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (response.status == 204) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            exchange.sendResponseHeaders(response.status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    private Response students(String method, String path, Map<String, String> query, String body) {
+        String[] parts = path.split("/");
+        // "", "students", id, "rank"
+        if (parts.length <= 2) {
+            if (method.equals("GET")) return list(query);
+            if (method.equals("POST")) return add(parseObject(body));
+            return error(405, "Use GET or POST on /students.");
+        }
+        String id = decode(parts[2]);
+        if (parts.length == 4 && parts[3].equals("rank") && method.equals("GET")) {
+            StudentRecord student = students.get(id);
+            if (student == null) return notFound(id);
+            return new Response(200, "{\"id\":" + quote(id) + ",\"rank\":" + quote(student.getRank()) + "}");
+        }
+        if (parts.length != 3) {
+            return error(404, "Unknown path: " + path);
+        }
+        switch (method) {
+            case "GET": {
+                StudentRecord student = students.get(id);
+                return student != null ? new Response(200, toJson(student)) : notFound(id);
+            }
+            case "PUT": {
+                Map<String, String> fields = parseObject(body);
+                String name = require(fields, "name");
+                double marks = parseMarks(require(fields, "marks"));
+                validate(name, marks);
+                // Answered from what was written, since the student may be deleted again before it is read back
+                return students.update(id, name, marks) ? new Response(200, toJson(new StudentRecord(id, name, marks)))
+                        : notFound(id);
+            }
+            case "DELETE":
+                return students.delete(id) != null ? new Response(204, "") : notFound(id);
+            default:
+                return error(405, "Use GET, PUT or DELETE on /students/{id}.");
+        }
+    }
+
+    private Response list(Map<String, String> query) {
+        String sort = query.get("sort");
+        List<StudentRecord> all = sort != null ? students.sortedBy(StudentOrder.parse(sort)) : students.all();
+        int offset = parseInt(query.getOrDefault("offset", "0"), "offset");
+        int limit = parseInt(query.getOrDefault("limit", Integer.toString(Integer.MAX_VALUE)), "limit");
+        int from = Math.min(offset, all.size());
+        int to = (int) Math.min((long) from + limit, all.size());
+        return new Response(200, toJson(all.subList(from, to)));
+    }
+
+    private Response add(Map<String, String> fields) {
+        String id = require(fields, "id");
+        String name = require(fields, "name");
+        double marks = parseMarks(require(fields, "marks"));
+        if (!validator.isValidId(id)) {
+            throw new IllegalArgumentException("Invalid ID: " + id);
+        }
+        validate(name, marks);
+        StudentRecord student = new StudentRecord(id, name, marks);
+        if (!students.add(student)) {
+            return error(409, "A student with ID " + id + " already exists.");
+        }
+        return new Response(201, toJson(student));
+    }
+
+    private void validate(String name, double marks) {
+        if (!validator.isValidName(name)) {
+            throw new IllegalArgumentException("Invalid name, it must not be blank or contain digits or control characters: "
+                    + name);
+        }
+        if (!validator.isValidMarks(marks)) {
+            throw new IllegalArgumentException("Marks out of range: " + marks);
+        }
+    }
+
+    private Response search(String method, String path, Map<String, String> query, String body) {
+        if (!method.equals("GET")) return error(405, "Use GET on /search.");
+        if (query.containsKey("name")) {
+            return new Response(200, toJson(students.findByName(query.get("name"))));
+        }
+        if (query.containsKey("prefix") || query.containsKey("fuzzy")) {
+            int limit = parseInt(query.getOrDefault("limit", "100"), "limit");
+            if (query.containsKey("prefix")) {
+                return new Response(200, toJson(students.findByNamePrefix(query.get("prefix"), limit)));
+            }
+            String name = query.get("fuzzy");
+            int distance = query.containsKey("distance")
+                    ? parseInt(query.get("distance"), "distance") : StudentNameIndex.defaultDistance(name);
+            return new Response(200, toJson(students.findByNameFuzzy(name, distance, limit)));
+        }
+        if (query.containsKey("from") && query.containsKey("to")) {
+            return new Response(200, toJson(students.findByIdRange(query.get("from"), query.get("to"))));
+        }
+        return error(400, "Give name, prefix, fuzzy, or from and to.");
+    }
+
+    private Response sort(String method, String path, Map<String, String> query, String body) {
+        if (!method.equals("POST")) return error(405, "Use POST on /sort.");
+        if (query.containsKey("order")) {
+            StudentOrder order = StudentOrder.parse(query.get("order"));
+            order.sort(students);
+            return new Response(200, "{\"sortedBy\":" + quote(order.toString()) + "}");
+        }
+        String by = query.getOrDefault("by", "id");
+        SortEngine.Algorithm algorithm = parseAlgorithm(query.getOrDefault("algorithm", "merge"));
+        if (by.equals("id")) {
+            students.sortById(algorithm);
+        } else if (by.equals("marks")) {
+            students.sortByMarks(algorithm);
+        } else {
+            return error(400, "Sort by id or marks.");
+        }
+        return new Response(200, "{\"sortedBy\":" + quote(by) + ",\"algorithm\":" + quote(algorithm.toString()) + "}");
+    }
+
+    private Response ranks(String method, String path, Map<String, String> query, String body) {
+        if (!method.equals("GET")) return error(405, "Use GET on /ranks.");
+        return new Response(200, rankCountsJson(rankCounts()));
+    }
+
+    private Response stats(String method, String path, Map<String, String> query, String body) {
+        if (!method.equals("GET")) return error(405, "Use GET on /stats.");
+        if (statistics == null) return error(404, "Statistics are not kept for this roster.");
+        StringBuilder json = new StringBuilder("{\"count\":").append(statistics.getCount());
+        json.append(",\"ranks\":").append(rankCountsJson(statistics.getRankCounts()));
+        json.append(",\"histogram\":").append(Arrays.toString(statistics.getHistogram()).replace(" ", ""));
+        json.append(",\"mean\":").append(number(statistics.getMean()));
+        json.append(",\"min\":").append(number(statistics.getMin()));
+        json.append(",\"max\":").append(number(statistics.getMax()));
+        for (int percent : new int[] {25, 50, 75, 90}) {
+            json.append(",\"p").append(percent).append("\":").append(number(statistics.getPercentile(percent)));
+        }
+        if (cache != null) {
+            json.append(",\"cache\":{\"hits\":").append(cache.getHits())
+                    .append(",\"misses\":").append(cache.getMisses())
+                    .append(",\"entries\":").append(cache.getEntryCount())
+                    .append(",\"evictions\":").append(cache.getEvictions()).append('}');
+        }
+        return new Response(200, json.append('}').toString());
+    }
+
+    private Response leaderboard(String method, String path, Map<String, String> query, String body) {
+        if (!method.equals("GET")) return error(405, "Use GET on /leaderboard.");
+        String order = query.getOrDefault("order", "top");
+        int offset = parseInt(query.getOrDefault("offset", "0"), "offset");
+        int limit = parseInt(query.getOrDefault("limit", "10"), "limit");
+        int k = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        List<StudentRecord> page;
+        if (order.equals("top")) {
+            page = students.topByMarks(k);
+        } else if (order.equals("bottom")) {
+            page = students.bottomByMarks(k);
+        } else {
+            return error(400, "Order by top or bottom.");
+        }
+        return new Response(200, toJson(page.subList(Math.min(offset, page.size()), page.size())));
+    }
+
+    private Response percentile(String method, String path, Map<String, String> query, String body) {
+        if (!method.equals("GET")) return error(405, "Use GET on /percentile.");
+        String p = query.get("p");
+        double percent;
+        try {
+            percent = Double.parseDouble(p == null ? "" : p);
+        } catch (NumberFormatException e) {
+            return error(400, "Give p between 0 and 100.");
+        }
+        StudentRecord student = students.atMarksPercentile(percent);
+        return student != null ? new Response(200, toJson(student)) : error(404, "No students.");
+    }
+
+    private Response query(String method, String path, Map<String, String> query, String body) {
+        if (!method.equals("GET")) return error(405, "Use GET on /query.");
+        StudentQuery studentQuery = StudentQuery.parse(query.getOrDefault("q", ""));
+        if (query.containsKey("explain")) {
+            return new Response(200, "{\"plan\":" + quote(studentQuery.explain(students)) + "}");
+        }
+        StringBuilder json = new StringBuilder("[");
+        long start = StudentMetrics.get().start();
+        studentQuery.execute(students).forEachOrdered(student -> {
+            if (json.length() > 1) json.append(',');
+            json.append(toJson(student));
+        });
+        StudentMetrics.get().stop(StudentMetrics.Operation.QUERY, start);
+        return new Response(200, json.append(']').toString());
+    }
+
+    private Response metrics(String method, String path, Map<String, String> query, String body) {
+        if (!method.equals("GET")) return error(405, "Use GET on /metrics.");
+        if (!StudentMetrics.ENABLED) return error(404, "Metrics are off.");
+        StudentMetrics metrics = StudentMetrics.get();
+        StringBuilder json = new StringBuilder("{\"operations\":{");
+        for (StudentMetrics.Operation operation : StudentMetrics.Operation.values()) {
+            LatencyHistogram latency = metrics.latency(operation);
+            if (json.charAt(json.length() - 1) != '{') json.append(',');
+            json.append(quote(operation.name().toLowerCase())).append(":{\"count\":").append(latency.getCount());
+            json.append(",\"meanMillis\":").append(number(latency.getMeanNanos() / 1e6));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                json.append(",\"").append(PERCENTILE_NAMES[i]).append("Millis\":")
+                        .append(number(latency.getValueAtPercentile(PERCENTILES[i]) / 1e6));
+            }
+            json.append(",\"maxMillis\":").append(number(latency.getMaxNanos() / 1e6)).append('}');
+        }
+        json.append("},\"scans\":").append(metrics.getScans());
+        json.append(",\"studentsScanned\":").append(metrics.getStudentsScanned());
+        json.append(",\"bytesRead\":").append(metrics.getBytesRead());
+        json.append(",\"bytesWritten\":").append(metrics.getBytesWritten());
+        return new Response(200, json.append('}').toString());
+    }
+
+    private Map<StudentRecord.Rank, Integer> rankCounts() {
+        if (statistics != null) {
+            return statistics.getRankCounts();
+        }
+        int[] counts = new int[StudentRecord.Rank.values().length];
+        students.forEach(student -> counts[student.getRankLevel().ordinal()]++);
+        Map<StudentRecord.Rank, Integer> ranks = new EnumMap<>(StudentRecord.Rank.class);
+        for (StudentRecord.Rank rank : StudentRecord.Rank.values()) {
+            ranks.put(rank, counts[rank.ordinal()]);
+        }
+        return ranks;
+    }
+
+    private static String rankCountsJson(Map<StudentRecord.Rank, Integer> counts) {
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<StudentRecord.Rank, Integer> entry : counts.entrySet()) {
+            if (json.length() > 1) json.append(',');
+            json.append(quote(entry.getKey().toString())).append(':').append(entry.getValue());
+        }
+        return json.append('}').toString();
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) ? "null" : Double.toString(value);
+    }
+
+    private static SortEngine.Algorithm parseAlgorithm(String name) {
+        for (SortEngine.Algorithm algorithm : SortEngine.Algorithm.values()) {
+            if (algorithm.name().equalsIgnoreCase(name)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sorting algorithm: " + name);
+    }
+
+    private static Response notFound(String id) {
+        return error(404, "Student " + id + " not found.");
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, "{\"error\":" + quote(message) + "}");
+    }
+
+    private static String require(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return value;
+    }
+
+    private static double parseMarks(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid marks: " + value);
+        }
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= 0) return parsed;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid " + name + ": " + value);
+    }
+
+    static String toJson(StudentRecord student) {
+        return "{\"id\":" + quote(student.getId()) + ",\"name\":" + quote(student.getName())
+                + ",\"marks\":" + student.getMarks() + ",\"rank\":" + quote(student.getRank()) + "}";
+    }
+
+    static String toJson(List<StudentRecord> list) {
+        StringBuilder json = new StringBuilder(list.size() * 80 + 2).append('[');
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append(toJson(list.get(i)));
+        }
+        return json.append(']').toString();
+    }
+
+    static String quote(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    /**
+     * Parses a flat JSON object of string, number, boolean or null values into their text.
+     */
+    static Map<String, String> parseObject(String json) {
+        Map<String, String> fields = new HashMap<>();
+        int[] pos = {skipSpace(json, 0)};
+        expect(json, pos, '{');
+        if (peek(json, pos) == '}') {
+            pos[0]++;
+            return fields;
+        }
+        while (true) {
+            String key = parseString(json, pos);
+            expect(json, pos, ':');
+            String value;
+            if (peek(json, pos) == '"') {
+                value = parseString(json, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < json.length() && ",} \t\r\n".indexOf(json.charAt(pos[0])) < 0) {
+                    pos[0]++;
+                }
+                value = json.substring(start, pos[0]);
+                if (value.isEmpty() || value.equals("null")) value = null;
+            }
+            fields.put(key, value);
+            char next = peek(json, pos);
+            pos[0]++;
+            if (next == '}') return fields;
+            if (next != ',') throw new IllegalArgumentException("Malformed JSON body.");
+        }
+    }
+
+    private static String parseString(String json, int[] pos) {
+        expect(json, pos, '"');
+        StringBuilder value = new StringBuilder();
+        while (pos[0] < json.length()) {
+            char c = json.charAt(pos[0]++);
+            if (c == '"') return value.toString();
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (pos[0] >= json.length()) break;
+            char escaped = json.charAt(pos[0]++);
+            switch (escaped) {
+                case 'n': value.append('\n'); break;
+                case 'r': value.append('\r'); break;
+                case 't': value.append('\t'); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'u':
+                    if (pos[0] + 4 > json.length()) throw new IllegalArgumentException("Malformed JSON body.");
+                    try {
+                        value.append((char) Integer.parseInt(json.substring(pos[0], pos[0] + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Malformed JSON body.");
+                    }
+                    pos[0] += 4;
+                    break;
+                default: value.append(escaped);
+            }
+        }
+        throw new IllegalArgumentException("Malformed JSON body.");
+    }
+
+    private static void expect(String json, int[] pos, char c) {
+        if (peek(json, pos) != c) throw new IllegalArgumentException("Malformed JSON body.");
+        pos[0]++;
+    }
+
+    private static char peek(String json, int[] pos) {
+        pos[0] = skipSpace(json, pos[0]);
+        if (pos[0] >= json.length()) throw new IllegalArgumentException("Malformed JSON body.");
+        return json.charAt(pos[0]);
+    }
+
+    private static int skipSpace(String json, int pos) {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0) {
+                query.put(decode(pair), "");
+            } else {
+                query.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+            }
+        }
+        return query;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+}
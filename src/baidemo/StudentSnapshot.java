@@ -0,0 +1,289 @@
+package Baidemo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Student Snapshot
+ *
+ * Versioned binary snapshot of the roster, written by saveStudentsToFile and recognised by its magic
+ * number when loading, so startup skips text parsing. Numeric IDs are stored as a long, other IDs and
+ * names as length-prefixed UTF-8, marks as a double. The record section can be Deflate compressed and
+ * ends with a CRC32 of the uncompressed records.
+ *
+ * The format is chosen with -Dstudents.format=binary|csv (binary by default) and compression with
+ * -Dstudents.compress=true. Running this class converts between the two formats:
+ * java Baidemo.StudentSnapshot students.txt students.bin [--compress]
+ */
+public final class StudentSnapshot {
+
+    public static final String FORMAT_PROPERTY = "students.format";
+    public static final String COMPRESS_PROPERTY = "students.compress";
+
+    private static final int MAGIC = 0x5354534E; // "STSN"
+    private static final int VERSION = 1;
+    private static final byte FLAG_DEFLATE = 1;
+    private static final byte NUMERIC_ID = 0;
+    private static final byte TEXT_ID = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private StudentSnapshot() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java Baidemo.StudentSnapshot <source> <target> [--compress | --csv]");
+            return;
+        }
+        Path source = Paths.get(args[0]);
+        Path target = Paths.get(args[1]);
+        String option = args.length > 2 ? args[2] : "";
+        List<StudentRecord> records = isSnapshot(source)
+                ? read(source, StudentRecord::new)
+                : StudentCsvLoader.load(source, StudentRecord::new).getRecords();
+
+        int n = records.size();
+        String[] ids = new String[n];
+        String[] names = new String[n];
+        double[] marks = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = records.get(i).getId();
+            names[i] = records.get(i).getName();
+            marks[i] = records.get(i).getMarks();
+        }
+        if (option.equals("--csv")) {
+            writeCsv(target, ids, names, marks, n);
+        } else {
+            write(target, ids, names, marks, n, option.equals("--compress"));
+        }
+        System.out.println("Converted " + n + " students to " + target + ".");
+    }
+
+    /**
+     * Writes the roster in the format selected by the system properties.
+     */
+    public static void writeConfigured(Path target, String[] ids, String[] names, double[] marks, int count) throws IOException {
+        if ("csv".equalsIgnoreCase(System.getProperty(FORMAT_PROPERTY))) {
+            writeCsv(target, ids, names, marks, count);
+        } else {
+            write(target, ids, names, marks, count, Boolean.getBoolean(COMPRESS_PROPERTY));
+        }
+    }
+
+    public static void write(Path target, String[] ids, String[] names, double[] marks, int count, boolean compress) throws IOException {
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE)) {
+            DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeByte(compress ? FLAG_DEFLATE : 0);
+            header.writeLong(count);
+            header.flush();
+
+            Deflater compressor = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+            DeflaterOutputStream deflater = compress ? new DeflaterOutputStream(file, compressor, BUFFER_SIZE) : null;
+            CheckedOutputStream checked = new CheckedOutputStream(deflater != null ? deflater : file, new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, BUFFER_SIZE));
+            for (int i = 0; i < count; i++) {
+                long key = StudentRecord.parseIdKey(ids[i]);
+                // Only IDs that print back identically (no leading zeros) are stored as numbers
+                if (key != StudentRecord.NON_NUMERIC_ID && Long.toString(key).equals(ids[i])) {
+                    out.writeByte(NUMERIC_ID);
+                    out.writeLong(key);
+                } else {
+                    out.writeByte(TEXT_ID);
+                    writeString(out, ids[i]);
+                }
+                writeString(out, names[i]);
+                out.writeDouble(marks[i]);
+            }
+            out.flush();
+            int crc = (int) checked.getChecksum().getValue();
+            DataOutputStream trailer = new DataOutputStream(deflater != null ? deflater : file);
+            trailer.writeInt(crc);
+            trailer.flush();
+            if (deflater != null) {
+                deflater.finish();
+                compressor.end();
+            }
+        }
+    }
+
+    public static void writeCsv(Path target, String[] ids, String[] names, double[] marks, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(target)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(ids[i] + "," + StudentCsvLoader.escape(names[i]) + "," + marks[i]);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * True if the file starts with the snapshot magic number; anything else is treated as CSV.
+     */
+    public static boolean isSnapshot(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] magic = in.readNBytes(4);
+            return magic.length == 4
+                    && ((magic[0] & 0xFF) << 24 | (magic[1] & 0xFF) << 16 | (magic[2] & 0xFF) << 8 | (magic[3] & 0xFF)) == MAGIC;
+        }
+    }
+
+    public static <T> List<T> read(Path file, StudentCsvLoader.RowFactory<T> factory) throws IOException {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            DataInputStream header = new DataInputStream(raw);
+            if (header.readInt() != MAGIC) {
+                throw new IOException("Not a student snapshot file.");
+            }
+            int version = header.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            boolean compressed = (header.readByte() & FLAG_DEFLATE) != 0;
+            long count = header.readLong();
+            if (count < 0 || count > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt snapshot record count: " + count);
+            }
+
+            Inflater decompressor = compressed ? new Inflater() : null;
+            InputStream body = compressed ? new InflaterInputStream(raw, decompressor, BUFFER_SIZE) : raw;
+            try {
+                BlockReader in = new BlockReader(body);
+                List<T> records = new ArrayList<>((int) Math.min(count, 1 << 20));
+                for (long i = 0; i < count; i++) {
+                    String id = in.readByte() == NUMERIC_ID ? Long.toString(in.readLong()) : in.readString();
+                    String name = in.readString();
+                    double marks = in.readDouble();
+                    records.add(factory.create(id, name, marks));
+                }
+                int expected = in.checksum();
+                if (in.readInt() != expected) {
+                    throw new IOException("Snapshot checksum mismatch; the file is damaged.");
+                }
+                boolean trailingBytes = !in.atEnd()
+                        || decompressor != null && (decompressor.getRemaining() > 0 || raw.read() >= 0);
+                if (trailingBytes) {
+                    throw new IOException("Snapshot has data after its last record; the file is damaged.");
+                }
+                return records;
+            } finally {
+                if (decompressor != null) {
+                    decompressor.end();
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes fields straight out of a reusable byte block, updating the checksum once per refill
+     * instead of once per field. Package private for tests.
+     */
+    static final class BlockReader {
+        private final InputStream in;
+        private final byte[] block = new byte[BUFFER_SIZE * 2];
+        private final ByteBuffer view = ByteBuffer.wrap(block);
+        private final CRC32 crc = new CRC32();
+        private int pos;
+        private int limit;
+        private int checked; // Bytes before this index are already in the checksum
+
+        BlockReader(InputStream in) {
+            this.in = in;
+        }
+
+        byte readByte() throws IOException {
+            require(1);
+            return block[pos++];
+        }
+
+        int readInt() throws IOException {
+            require(4);
+            int value = view.getInt(pos);
+            pos += 4;
+            return value;
+        }
+
+        long readLong() throws IOException {
+            require(8);
+            long value = view.getLong(pos);
+            pos += 8;
+            return value;
+        }
+
+        double readDouble() throws IOException {
+            require(8);
+            double value = view.getDouble(pos);
+            pos += 8;
+            return value;
+        }
+
+        String readString() throws IOException {
+            require(2);
+            int length = view.getShort(pos) & 0xFFFF;
+            pos += 2;
+            require(length);
+            String value = new String(block, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        /**
+         * True if nothing follows the bytes read so far. For a compressed body, reading to the end
+         * also makes the inflater check the stream's own trailer.
+         */
+        boolean atEnd() throws IOException {
+            return pos == limit && in.read() < 0;
+        }
+
+        /** Checksum of every byte read so far. */
+        int checksum() {
+            crc.update(block, checked, pos - checked);
+            checked = pos;
+            return (int) crc.getValue();
+        }
+
+        private void require(int bytes) throws IOException {
+            if (limit - pos >= bytes) return;
+            crc.update(block, checked, pos - checked);
+            System.arraycopy(block, pos, block, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+            checked = 0;
+            while (limit < bytes) {
+                int read = in.read(block, limit, block.length - limit);
+                if (read < 0) {
+                    throw new EOFException("Snapshot ends before its last record; the file is damaged.");
+                }
+                limit += read;
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Value is too long for a snapshot: " + bytes.length + " bytes.");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,172 @@
+package Baidemo;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Student Statistics
+ *
+ * Running aggregates of the roster's marks for dashboards: students per rank, a histogram of one-mark
+ * buckets, and the mean, minimum, maximum and percentiles. Each add, edit or delete adjusts the
+ * aggregates in O(log d), where d is the number of distinct marks, so reading them never scans the
+ * roster. Marks outside 0 to 10 count only towards the Invalid Marks rank; every other figure covers
+ * valid marks alone.
+ *
+ * StatisticsStudentRepository keeps an instance in step with a repository. All methods are
+ * synchronized, so readers may query while writers change the roster.
+ */
+public final class StudentStatistics {
+
+    public static final int HISTOGRAM_BUCKETS = 10;
+
+    private static final StudentRecord.Rank[] RANKS = StudentRecord.Rank.values();
+
+    private final int[] rankCounts = new int[RANKS.length];
+    private final int[] histogram = new int[HISTOGRAM_BUCKETS];
+    // Distinct valid marks and how many students have each, for exact minimum, maximum and percentiles
+    private final TreeMap<Double, int[]> marksCounts = new TreeMap<>();
+    private int count;
+    private int validCount;
+    private double sum;
+
+    public synchronized void add(double marks) {
+        StudentRecord.Rank rank = StudentRecord.Rank.of(marks);
+        rankCounts[rank.ordinal()]++;
+        count++;
+        if (rank == StudentRecord.Rank.INVALID) return;
+        histogram[bucketOf(marks)]++;
+        marksCounts.computeIfAbsent(normalize(marks), m -> new int[1])[0]++;
+        validCount++;
+        sum += marks;
+    }
+
+    public synchronized void remove(double marks) {
+        StudentRecord.Rank rank = StudentRecord.Rank.of(marks);
+        rankCounts[rank.ordinal()]--;
+        count--;
+        if (rank == StudentRecord.Rank.INVALID) return;
+        histogram[bucketOf(marks)]--;
+        Double key = normalize(marks);
+        int[] students = marksCounts.get(key);
+        if (students != null && --students[0] == 0) {
+            marksCounts.remove(key);
+        }
+        validCount--;
+        // Start again from exactly zero so rounding errors do not outlive the students that caused them
+        sum = validCount == 0 ? 0 : sum - marks;
+    }
+
+    public synchronized void replace(double oldMarks, double newMarks) {
+        remove(oldMarks);
+        add(newMarks);
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(rankCounts, 0);
+        Arrays.fill(histogram, 0);
+        marksCounts.clear();
+        count = 0;
+        validCount = 0;
+        sum = 0;
+    }
+
+    /**
+     * Number of students, including those with invalid marks.
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized int getCount(StudentRecord.Rank rank) {
+        return rankCounts[rank.ordinal()];
+    }
+
+    /**
+     * Students per rank, in rank order.
+     */
+    public synchronized Map<StudentRecord.Rank, Integer> getRankCounts() {
+        Map<StudentRecord.Rank, Integer> counts = new EnumMap<>(StudentRecord.Rank.class);
+        for (StudentRecord.Rank rank : RANKS) {
+            counts.put(rank, rankCounts[rank.ordinal()]);
+        }
+        return counts;
+    }
+
+    /**
+     * Students per one-mark bucket: bucket i holds marks from i up to i + 1, and the last one includes 10.
+     */
+    public synchronized int[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * Mean of the valid marks, or NaN if there are none.
+     */
+    public synchronized double getMean() {
+        return validCount == 0 ? Double.NaN : sum / validCount;
+    }
+
+    public synchronized double getMin() {
+        return marksCounts.isEmpty() ? Double.NaN : marksCounts.firstKey();
+    }
+
+    public synchronized double getMax() {
+        return marksCounts.isEmpty() ? Double.NaN : marksCounts.lastKey();
+    }
+
+    /**
+     * Nearest-rank percentile of the valid marks for 0 <= percent <= 100, or NaN if there are none.
+     * Walks the distinct marks, of which a roster graded to one decimal has at most 101.
+     */
+    public synchronized double getPercentile(double percent) {
+        if (!(percent >= 0 && percent <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percent);
+        }
+        if (validCount == 0) return Double.NaN;
+        long target = Math.max(1, (long) Math.ceil(percent / 100 * validCount));
+        long seen = 0;
+        for (Map.Entry<Double, int[]> entry : marksCounts.entrySet()) {
+            seen += entry.getValue()[0];
+            if (seen >= target) {
+                return entry.getKey();
+            }
+        }
+        return marksCounts.lastKey();
+    }
+
+    public double getMedian() {
+        return getPercentile(50);
+    }
+
+    /**
+     * The dashboard as printed by the console menus.
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("Students: ").append(count).append('\n');
+        for (StudentRecord.Rank rank : RANKS) {
+            report.append("  ").append(rank).append(": ").append(rankCounts[rank.ordinal()]).append('\n');
+        }
+        if (validCount == 0) {
+            return report.append("No valid marks.").toString();
+        }
+        report.append(String.format("Mean: %.2f, Min: %s, Median: %s, Max: %s%n",
+                getMean(), getMin(), getMedian(), getMax()));
+        report.append("Marks histogram:");
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            report.append('\n').append(String.format("  %2d-%-2d %d", i, i + 1, histogram[i]));
+        }
+        return report.toString();
+    }
+
+    private static int bucketOf(double marks) {
+        return Math.min(HISTOGRAM_BUCKETS - 1, (int) marks);
+    }
+
+    private static Double normalize(double marks) {
+        return marks == 0 ? 0.0 : marks; // -0.0 and 0.0 are one key
+    }
+}
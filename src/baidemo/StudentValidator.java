@@ -0,0 +1,90 @@
+package Baidemo;
+
+/**
+ * Student Validator
+ *
+ * Field checks shared by the console prompts and bulk import, written as plain character loops
+ * instead of String.matches, which compiles its regex again on every call.
+ *
+ * NUMERIC_IDS holds the StudentManagementSystem rules (IDs of 1 to 18 digits, any marks) and
+ * ARRAY_RULES those of StudentManagementSystemWithArray (any non-blank ID, marks from 0 to 10).
+ * Both require a non-blank name without digits or control characters; a tab or line break would
+ * not survive the CSV files the roster is saved to and loaded from.
+ */
+public final class StudentValidator {
+
+    public static final StudentValidator NUMERIC_IDS =
+            new StudentValidator(true, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    public static final StudentValidator ARRAY_RULES = new StudentValidator(false, 0, 10);
+
+    private final boolean numericIds;
+    private final double minMarks;
+    private final double maxMarks;
+
+    public StudentValidator(boolean numericIds, double minMarks, double maxMarks) {
+        this.numericIds = numericIds;
+        this.minMarks = minMarks;
+        this.maxMarks = maxMarks;
+    }
+
+    public boolean isValidId(String id) {
+        return numericIds ? isNumericId(id) : !isBlank(id);
+    }
+
+    public boolean isValidName(String name) {
+        return !isBlank(name) && !containsDigit(name) && !containsControl(name);
+    }
+
+    public boolean isValidMarks(double marks) {
+        return marks >= minMarks && marks <= maxMarks; // Also false for NaN
+    }
+
+    public boolean isValid(StudentRecord student) {
+        return isValidId(student.getId()) && isValidName(student.getName()) && isValidMarks(student.getMarks());
+    }
+
+    /**
+     * 1 to 18 ASCII digits, the IDs that fit StudentRecord's numeric key.
+     */
+    public static boolean isNumericId(String id) {
+        int length = id.length();
+        if (length == 0 || length > StudentRecord.MAX_ID_DIGITS) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean containsDigit(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean containsControl(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isISOControl(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isBlank(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
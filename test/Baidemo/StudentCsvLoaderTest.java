@@ -0,0 +1,195 @@
+package Baidemo;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Every case is loaded through both the memory mapped path, with small chunks so that boundaries
+ * fall inside lines, and the stream path, fed a few bytes per read.
+ */
+public class StudentCsvLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void quotedNamesKeepCommasAndQuotes() throws IOException {
+        List<String> rows = load("1,\"Nguyen, Van A\",7.5\n2,\"Say \"\"hi\"\", then go\",8\n");
+        assertEquals(List.of("1|Nguyen, Van A|7.5", "2|Say \"hi\", then go|8.0"), rows);
+    }
+
+    @Test
+    public void legacyUnquotedNamesWithCommasAreJoined() throws IOException {
+        assertEquals(List.of("3|Tran, Thi, B|6.25"), load("3,Tran, Thi, B,6.25\n"));
+    }
+
+    @Test
+    public void crlfLineEndings() throws IOException {
+        assertEquals(List.of("1|An|7.0", "2|Binh|8.0"), load("1,An,7\r\n2,Binh,8\r\n"));
+    }
+
+    @Test
+    public void lastLineWithoutNewline() throws IOException {
+        assertEquals(List.of("1|An|7.0", "2|Binh|8.5"), load("1,An,7\n2,Binh,8.5"));
+        assertEquals(List.of("1|An|7.0"), load("1,An,7\r"));
+    }
+
+    @Test
+    public void escapedNamesLoadBack() throws IOException {
+        String name = "Le \"Bo\", Van\nC";
+        List<String> rows = load("5," + StudentCsvLoader.escape(name) + ",9\n");
+        assertEquals(List.of("5|Le \"Bo\", Van C|9.0"), rows);
+    }
+
+    @Test
+    public void malformedLinesAreCountedAndSkipped() throws IOException {
+        String text = "1,An,7\n"
+                + "2,Binh\n"                // Too few fields
+                + ",Chi,5\n"                // Empty ID
+                + "4,Dung,abc\n"            // Marks not a number
+                + "5,Em,\n"                 // Empty marks
+                + "6,\"Unterminated,5\n"    // Quote never closed
+                + "7,\"Giang\"x,5\n"        // Text after the closing quote
+                + "\n\r\n"                  // Blank lines are not malformed
+                + "8,Hoa,9\n";
+        for (StudentCsvLoader.Result<String> result : loadBoth(text)) {
+            assertEquals(List.of("1|An|7.0", "8|Hoa|9.0"), result.getRecords());
+            assertEquals(6, result.getMalformedLines());
+        }
+    }
+
+    @Test
+    public void fastMarksParsingMatchesParseDouble() throws IOException {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        List<Double> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder marks = new StringBuilder();
+            if (random.nextInt(4) == 0) marks.append(random.nextBoolean() ? '-' : '+');
+            int digits = 1 + random.nextInt(15);
+            int point = random.nextInt(digits + 1);
+            for (int d = 0; d < digits; d++) {
+                if (d == point && d > 0) marks.append('.');
+                marks.append((char) ('0' + random.nextInt(10)));
+            }
+            text.append(i).append(",S").append(i).append(',').append(marks).append('\n');
+            expected.add(Double.parseDouble(marks.toString()));
+        }
+        for (StudentCsvLoader.Result<String> result : loadBoth(text.toString())) {
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(i + "|S" + i + "|" + expected.get(i), result.getRecords().get(i));
+            }
+        }
+    }
+
+    @Test
+    public void marksOutsideTheFastPathFallBackToParseDouble() throws IOException {
+        String text = "1,A,1e2\n"
+                + "2,B, 8.5 \n"
+                + "3,C,12345678901234567.5\n"
+                + "4,D,0.1234567890123456789012345\n"
+                + "5,E,-0\n"
+                + "6,F,.5\n"
+                + "7,G,5.\n";
+        assertEquals(List.of("1|A|100.0", "2|B|8.5", "3|C|" + 12345678901234567.5,
+                "4|D|" + 0.1234567890123456789012345, "5|E|-0.0", "6|F|0.5", "7|G|5.0"), load(text));
+    }
+
+    @Test
+    public void linesSpanningChunksAndBlocks() throws IOException {
+        StringBuilder text = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        // More than one stream block, with names of varying length so boundaries land everywhere
+        for (int i = 0; text.length() < (3 << 20); i++) {
+            String name = "Student " + "x".repeat(i % 97) + ", " + i;
+            text.append(i).append(',').append(StudentCsvLoader.escape(name)).append(',').append(i % 11).append(".5\r\n");
+            expected.add(i + "|" + name + "|" + (i % 11) + ".5");
+        }
+        Path file = write(text.toString());
+        assertEquals(expected, StudentCsvLoader.load(file, StudentCsvLoaderTest::row, 4093).getRecords());
+        assertEquals(expected, StudentCsvLoader.load(file, StudentCsvLoaderTest::row).getRecords());
+        assertEquals(expected, StudentCsvLoader.load(Files.newInputStream(file), StudentCsvLoaderTest::row).getRecords());
+    }
+
+    @Test
+    public void lineLongerThanOneStreamBlock() throws IOException {
+        String name = "n".repeat(3 << 20);
+        String text = "1,A,1\n2," + name + ",2\n3,C,3";
+        for (StudentCsvLoader.Result<String> result : loadBoth(text)) {
+            assertEquals(List.of("1|A|1.0", "2|" + name + "|2.0", "3|C|3.0"), result.getRecords());
+        }
+    }
+
+    private static String row(String id, String name, double marks) {
+        return id + "|" + name + "|" + marks;
+    }
+
+    private List<String> load(String text) throws IOException {
+        List<StudentCsvLoader.Result<String>> results = loadBoth(text);
+        for (StudentCsvLoader.Result<String> result : results) {
+            assertEquals(0, result.getMalformedLines());
+        }
+        return results.get(0).getRecords();
+    }
+
+    // Loads the text every way the loader reads input and checks that they agree
+    private List<StudentCsvLoader.Result<String>> loadBoth(String text) throws IOException {
+        Path file = write(text);
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        List<StudentCsvLoader.Result<String>> results = List.of(
+                StudentCsvLoader.load(file, StudentCsvLoaderTest::row),
+                StudentCsvLoader.load(file, StudentCsvLoaderTest::row, 5),
+                StudentCsvLoader.load(new ByteArrayInputStream(bytes), StudentCsvLoaderTest::row),
+                StudentCsvLoader.load(new TrickleInputStream(bytes, 3), StudentCsvLoaderTest::row));
+        for (StudentCsvLoader.Result<String> result : results) {
+            assertEquals(results.get(0).getRecords(), result.getRecords());
+            assertEquals(results.get(0).getMalformedLines(), result.getMalformedLines());
+            assertEquals(bytes.length, result.getBytesRead());
+        }
+        return results;
+    }
+
+    private Path write(String text) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    // Hands out at most a few bytes per read, like a slow pipe
+    private static final class TrickleInputStream extends InputStream {
+        private final byte[] bytes;
+        private final int step;
+        private int pos;
+
+        TrickleInputStream(byte[] bytes, int step) {
+            this.bytes = bytes;
+            this.step = step;
+        }
+
+        @Override
+        public int read() {
+            return pos < bytes.length ? bytes[pos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos == bytes.length) return -1;
+            int n = Math.min(Math.min(len, step), bytes.length - pos);
+            System.arraycopy(bytes, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+    }
+}
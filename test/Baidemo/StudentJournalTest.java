@@ -0,0 +1,256 @@
+package Baidemo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * A crash is simulated by opening a second journal on the same file while the first is still open,
+ * which sees exactly the bytes written so far.
+ */
+public class StudentJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path journalFile;
+    private Path rotatedFile;
+    private Path snapshotFile;
+    private final List<StudentJournal> opened = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        journalFile = folder.getRoot().toPath().resolve("students.journal");
+        rotatedFile = journalFile.resolveSibling("students.journal.old");
+        snapshotFile = journalFile.resolveSibling("students.snapshot");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (StudentJournal journal : opened) {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void replayAfterCrashAppliesEveryChangeInOrder() throws IOException {
+        StudentJournal journal = open();
+        journal.logAdd("1", "An", 7);
+        journal.logAdd("2", "Nguyen, \"Binh\"", 8.5);
+        journal.logEdit("1", "An Le", -0.0);
+        journal.logDelete("2");
+
+        assertEquals(List.of("add 1 An 7.0", "add 2 Nguyen, \"Binh\" 8.5", "edit 1 An Le -0.0", "delete 2"),
+                replay());
+    }
+
+    @Test
+    public void tornTailIsCutAndLaterAppendsSurvive() throws IOException {
+        StudentJournal journal = open();
+        journal.logAdd("1", "An", 7);
+        journal.logAdd("2", "Binh", 8);
+        journal.logAdd("3", "Chi", 9);
+        journal.sync();
+        long full = Files.size(journalFile);
+        truncate(full - 5);
+
+        StudentJournal recovered = open();
+        assertEquals(2, recovered.replay(new Recorder()));
+        assertTrue(Files.size(journalFile) < full - 5);
+        recovered.logAdd("4", "Dung", 6);
+
+        assertEquals(List.of("add 1 An 7.0", "add 2 Binh 8.0", "add 4 Dung 6.0"), replay());
+    }
+
+    @Test
+    public void entryWithBadCrcEndsReplay() throws IOException {
+        StudentJournal journal = open();
+        journal.logAdd("1", "An", 7);
+        journal.logAdd("2", "Binh", 8);
+        journal.logAdd("3", "Chi", 9);
+        journal.sync();
+        // Flip a bit in the marks of the last entry, just before its CRC
+        long position = Files.size(journalFile) - 6;
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 1)).rewind();
+            channel.write(one, position);
+        }
+
+        assertEquals(List.of("add 1 An 7.0", "add 2 Binh 8.0"), replay());
+    }
+
+    @Test
+    public void zeroFilledTailEndsReplay() throws IOException {
+        StudentJournal journal = open();
+        journal.logAdd("1", "An", 7);
+        journal.sync();
+        long valid = Files.size(journalFile);
+        Files.write(journalFile, new byte[64], StandardOpenOption.APPEND);
+
+        assertEquals(List.of("add 1 An 7.0"), replay());
+        assertEquals(valid, Files.size(journalFile));
+    }
+
+    @Test
+    public void crashDuringCompactionReplaysOldThenNewLog() throws Exception {
+        StudentJournal journal = open();
+        journal.logAdd("1", "An", 7);
+        journal.logAdd("2", "Binh", 8);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        journal.compactInBackground(snapshotFile, target -> {
+            started.countDown();
+            await(release);
+            Files.writeString(target, "snapshot");
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        journal.logEdit("1", "An Le", 9);
+
+        assertTrue(Files.exists(rotatedFile));
+        assertEquals(List.of("add 1 An 7.0", "add 2 Binh 8.0", "edit 1 An Le 9.0"), replay());
+
+        release.countDown();
+        journal.close();
+        opened.remove(journal);
+        assertFalse(Files.exists(rotatedFile));
+        assertEquals("snapshot", Files.readString(snapshotFile));
+        assertEquals(List.of("edit 1 An Le 9.0"), replay());
+    }
+
+    @Test
+    public void failedCompactionKeepsItsLogAheadOfLaterChanges() throws Exception {
+        StudentJournal journal = open();
+        journal.logAdd("1", "An", 7);
+        journal.logAdd("2", "Binh", 8);
+        try {
+            journal.compactNow(snapshotFile, target -> {
+                throw new IOException("disk full");
+            });
+            fail("The snapshot writer failed");
+        } catch (IOException expected) {
+            assertTrue(Files.exists(rotatedFile));
+        }
+        journal.logDelete("2");
+        CountDownLatch release = new CountDownLatch(1);
+        // Rotating again appends the current log to the one still waiting for its snapshot
+        journal.compactInBackground(snapshotFile, target -> {
+            await(release);
+            Files.writeString(target, "snapshot");
+        });
+        journal.logAdd("3", "Chi", 6);
+
+        assertEquals(List.of("add 1 An 7.0", "add 2 Binh 8.0", "delete 2", "add 3 Chi 6.0"), replay());
+        release.countDown();
+    }
+
+    @Test
+    public void compactNowLeavesAnEmptyLog() throws IOException {
+        StudentJournal journal = open();
+        journal.logAdd("1", "An", 7);
+        journal.compactNow(snapshotFile, target -> Files.writeString(target, "snapshot"));
+
+        assertFalse(Files.exists(rotatedFile));
+        assertEquals(0, Files.size(journalFile));
+        assertEquals("snapshot", Files.readString(snapshotFile));
+        journal.logAdd("2", "Binh", 8);
+        assertEquals(List.of("add 2 Binh 8.0"), replay());
+    }
+
+    @Test
+    public void appendsShareGroupCommits() throws Exception {
+        StudentJournal journal = open();
+        int entries = 5000;
+        long start = System.nanoTime();
+        for (int i = 0; i < entries; i++) {
+            journal.logAdd(Integer.toString(i), "Student " + i, i % 10);
+        }
+        // Wait for the background group commit to pick up the last entries
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (journal.syncCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(StudentJournal.GROUP_COMMIT_MILLIS);
+        }
+        Thread.sleep(3 * StudentJournal.GROUP_COMMIT_MILLIS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long syncs = journal.syncCount();
+
+        assertTrue("the background thread syncs without being asked", syncs > 0);
+        // Fixed delay scheduling allows at most one fsync per period
+        assertTrue(syncs + " fsyncs in " + elapsedMillis + " ms", syncs <= elapsedMillis / StudentJournal.GROUP_COMMIT_MILLIS + 1);
+        assertTrue(syncs < entries);
+
+        journal.sync();
+        assertEquals("nothing new to force", syncs, journal.syncCount());
+        journal.logDelete("0");
+        journal.sync();
+        journal.sync();
+        assertTrue(journal.syncCount() <= syncs + 1);
+        assertEquals(entries + 1, replay().size());
+    }
+
+    private StudentJournal open() throws IOException {
+        StudentJournal journal = StudentJournal.open(journalFile);
+        opened.add(journal);
+        return journal;
+    }
+
+    private List<String> replay() throws IOException {
+        Recorder recorder = new Recorder();
+        open().replay(recorder);
+        return recorder.changes;
+    }
+
+    private void truncate(long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IOException("Timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private static final class Recorder implements StudentJournal.Listener {
+        final List<String> changes = new ArrayList<>();
+
+        @Override
+        public void onAdd(String id, String name, double marks) {
+            changes.add("add " + id + " " + name + " " + marks);
+        }
+
+        @Override
+        public void onEdit(String id, String name, double marks) {
+            changes.add("edit " + id + " " + name + " " + marks);
+        }
+
+        @Override
+        public void onDelete(String id) {
+            changes.add("delete " + id);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package Baidemo;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class StudentNameIndexTest {
+
+    @Test
+    public void fuzzyFindsNamesOfEveryLength() {
+        for (int length : new int[] {3, 40, 126, 127, 128, 200, 1000}) {
+            // Random letters, so a long name has about as many distinct trigrams as characters
+            Random random = new Random(length);
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                name.append((char) ('a' + random.nextInt(26)));
+            }
+            StudentNameIndex index = new StudentNameIndex();
+            index.add(name.toString(), "1");
+            index.add("Other", "2");
+            String typo = name.substring(0, length - 1) + "#";
+
+            assertEquals("length " + length, List.of(List.of("1")), index.fuzzy(name.toString(), 0, 10));
+            assertEquals("length " + length, List.of(List.of("1")), index.fuzzy(typo, 1, 10));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package Baidemo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * sort packs dense field ranks into radix keys; comparator compares fields directly. These tests
+ * check that the two always agree.
+ */
+public class StudentOrderTest {
+
+    private static final StudentOrder.Field[] FIELDS = StudentOrder.Field.values();
+    private static final String[] NAMES = {"an", "An", "AN", "Binh", "binh", "Chi", "chí", "Đức", "đức", "",
+        "Nguyen Van A", "nguyen van a", "Straße", "STRASSE", "İlker", "ilker"};
+    private static final double[] MARKS = {Double.NaN, -0.0, 0.0, -1, 10, 7.5, 3.25, Double.NEGATIVE_INFINITY,
+        Double.POSITIVE_INFINITY, Double.MIN_VALUE, -Double.MIN_VALUE, 5, 8.75};
+
+    @Test
+    public void randomOrdersMatchTheComparator() {
+        Random random = new Random(2024);
+        for (int round = 0; round < 300; round++) {
+            StudentOrder order = randomOrder(random);
+            int n = random.nextInt(round % 10 == 0 ? 5000 : 200);
+            StudentRecord[] items = students(random, n, random.nextInt(4));
+            assertSortsLikeComparator(order, items, 0, n);
+            if (n > 2) {
+                int from = random.nextInt(n / 2);
+                int to = from + random.nextInt(n - from);
+                assertSortsLikeComparator(order, items, from, to);
+            }
+        }
+    }
+
+    @Test
+    public void keysWiderThanOneLongAreSplit() {
+        // About 14 bits of rank per wide field; five of them and the ID need more than 63 bits, so two radix groups
+        Random random = new Random(7);
+        StudentRecord[] items = students(random, 30_000, 3);
+        StudentOrder order = StudentOrder.by(StudentOrder.Field.NAME, false)
+                .then(StudentOrder.Field.MARKS, true)
+                .then(StudentOrder.Field.RANK, false)
+                .then(StudentOrder.Field.MARKS, false)
+                .then(StudentOrder.Field.NAME, true)
+                .then(StudentOrder.Field.ID, true);
+        assertSortsLikeComparator(order, items, 0, items.length);
+        assertSortsLikeComparator(StudentOrder.parse("marks, name desc, id, rank"), items, 0, items.length);
+    }
+
+    @Test
+    public void caseOnlyNameDifferencesFallThroughToTheNextField() {
+        StudentRecord[] items = {
+            new StudentRecord("3", "AN", 5), new StudentRecord("1", "an", 7), new StudentRecord("2", "An", 6)
+        };
+        StudentOrder.by(StudentOrder.Field.NAME, false).sort(items, 0, items.length);
+        assertEquals("1 2 3", ids(items));
+        StudentOrder.by(StudentOrder.Field.NAME, false).then(StudentOrder.Field.MARKS, true).sort(items, 0, items.length);
+        assertEquals("1 2 3", ids(items));
+        StudentOrder.by(StudentOrder.Field.NAME, true).then(StudentOrder.Field.MARKS, false).sort(items, 0, items.length);
+        assertEquals("3 2 1", ids(items));
+    }
+
+    @Test
+    public void idsWithLeadingZerosOrderAfterTheirNumberAsText() {
+        StudentRecord[] items = {
+            new StudentRecord("07", "a", 1), new StudentRecord("x", "a", 1), new StudentRecord("7", "a", 1),
+            new StudentRecord("007", "a", 1), new StudentRecord("10", "a", 1), new StudentRecord("A", "a", 1)
+        };
+        StudentRecord[] expected = items.clone();
+        Arrays.sort(expected, StudentRecord.ID_ORDER);
+        StudentOrder.by(StudentOrder.Field.MARKS, false).sort(items, 0, items.length);
+        assertEquals(ids(expected), ids(items));
+    }
+
+    @Test
+    public void repositorySortMatchesTheComparator() throws IOException {
+        Random random = new Random(11);
+        for (String backend : new String[] {"list", "array", "indexed", "concurrent"}) {
+            StudentRepository repository = StudentRepositories.create(backend);
+            for (StudentRecord student : students(random, 2000, 2)) {
+                repository.add(student);
+            }
+            StudentOrder order = randomOrder(random);
+            StudentRecord[] expected = repository.all().toArray(new StudentRecord[0]);
+            Arrays.sort(expected, order.comparator());
+            order.sort(repository);
+            assertEquals(backend + " by " + order, ids(expected), ids(repository.all().toArray(new StudentRecord[0])));
+        }
+    }
+
+    private static void assertSortsLikeComparator(StudentOrder order, StudentRecord[] items, int from, int to) {
+        StudentRecord[] expected = items.clone();
+        Arrays.sort(expected, from, to, order.comparator());
+        StudentRecord[] actual = items.clone();
+        order.sort(actual, from, to);
+        for (int i = 0; i < items.length; i++) {
+            assertSame(order + " at " + i + " of [" + from + ", " + to + ")", expected[i], actual[i]);
+        }
+    }
+
+    private static StudentOrder randomOrder(Random random) {
+        StudentOrder order = StudentOrder.by(FIELDS[random.nextInt(FIELDS.length)], random.nextBoolean());
+        for (int extra = random.nextInt(5); extra > 0; extra--) {
+            order = order.then(FIELDS[random.nextInt(FIELDS.length)], random.nextBoolean());
+        }
+        return order;
+    }
+
+    /**
+     * Students with unique IDs, as in a roster, and other fields drawn from pools of awkward values,
+     * or mostly distinct when spread is 3.
+     */
+    private static StudentRecord[] students(Random random, int n, int spread) {
+        StudentRecord[] items = new StudentRecord[n];
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            String id;
+            do {
+                switch (random.nextInt(4)) {
+                    case 0: id = "0" + random.nextInt(100); break;
+                    case 1: id = "S" + random.nextInt(100); break;
+                    default: id = Integer.toString(random.nextInt(Math.max(100, n * 10)));
+                }
+            } while (!ids.add(id));
+            String name = spread >= 2 && random.nextBoolean()
+                    ? caseVariant(random, "Student " + random.nextInt(spread == 3 ? 100_000 : 30))
+                    : NAMES[random.nextInt(NAMES.length)];
+            double marks = spread >= 1 && random.nextBoolean()
+                    ? Math.round(random.nextDouble() * (spread == 3 ? 1_000_000 : 40)) / 4.0
+                    : MARKS[random.nextInt(MARKS.length)];
+            items[i] = new StudentRecord(id, name, marks);
+        }
+        return items;
+    }
+
+    private static String caseVariant(Random random, String name) {
+        StringBuilder varied = new StringBuilder(name);
+        for (int i = 0; i < varied.length(); i++) {
+            if (random.nextInt(4) == 0) {
+                varied.setCharAt(i, Character.toUpperCase(varied.charAt(i)));
+            }
+        }
+        return varied.toString();
+    }
+
+    private static String ids(StudentRecord[] items) {
+        StringBuilder text = new StringBuilder();
+        for (StudentRecord item : items) {
+            text.append(text.length() == 0 ? "" : " ").append(item.getId());
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,275 @@
+package Baidemo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StudentSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String[] IDS = {"1", "42", "007", "0", "SV-12", "", "9223372036854775807", "-5", "Lê"};
+
+    @Test
+    public void roundTripPlain() throws IOException {
+        assertRoundTrip(false);
+    }
+
+    @Test
+    public void roundTripDeflate() throws IOException {
+        assertRoundTrip(true);
+    }
+
+    @Test
+    public void roundTripAcrossManyBlocks() throws IOException {
+        // Long names make fields straddle the reader's block refills
+        Random random = new Random(9);
+        int n = 3000;
+        String[] ids = new String[n];
+        String[] names = new String[n];
+        double[] marks = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i % 3 == 0 ? "0" + i : Integer.toString(i);
+            names[i] = "n".repeat(random.nextInt(i % 100 == 0 ? 0xFFFF : 200));
+            marks[i] = random.nextDouble() * 10;
+        }
+        for (boolean compress : new boolean[] {false, true}) {
+            Path file = folder.newFile().toPath();
+            StudentSnapshot.write(file, ids, names, marks, n, compress);
+            List<String[]> read = StudentSnapshot.read(file, StudentSnapshotTest::row);
+            assertEquals(n, read.size());
+            for (int i = 0; i < n; i++) {
+                assertEquals(ids[i], read.get(i)[0]);
+                assertEquals(names[i], read.get(i)[1]);
+                assertEquals(Double.toString(marks[i]), read.get(i)[2]);
+            }
+        }
+    }
+
+    @Test
+    public void overlongFieldIsRefused() throws IOException {
+        Path file = folder.newFile().toPath();
+        try {
+            StudentSnapshot.write(file, new String[] {"1"}, new String[] {"n".repeat(0x10000)}, new double[] {1}, 1, false);
+            fail("A name over 65535 bytes cannot be length-prefixed");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void truncatedFileIsRejected() throws IOException {
+        for (boolean compress : new boolean[] {false, true}) {
+            byte[] bytes = Files.readAllBytes(sample(compress));
+            for (int length : new int[] {2, 12, 20, bytes.length / 2, bytes.length - 4, bytes.length - 1}) {
+                assertRejected("truncated to " + length, Arrays.copyOf(bytes, length));
+            }
+        }
+    }
+
+    @Test
+    public void dataAfterTheTrailerIsRejected() throws IOException {
+        for (boolean compress : new boolean[] {false, true}) {
+            byte[] bytes = Files.readAllBytes(sample(compress));
+            assertRejected("one byte appended", Arrays.copyOf(bytes, bytes.length + 1));
+        }
+    }
+
+    @Test
+    public void checksumMismatchIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(sample(false));
+        // The last record's marks sit just before the 4 byte CRC trailer
+        bytes[bytes.length - 6] ^= 1;
+        assertRejected("flipped marks bit", bytes);
+
+        bytes = Files.readAllBytes(sample(false));
+        bytes[bytes.length - 1] ^= 1;
+        assertRejected("flipped trailer bit", bytes);
+
+        bytes = Files.readAllBytes(sample(true));
+        bytes[bytes.length / 2] ^= 0x10;
+        assertRejected("flipped compressed bit", bytes);
+    }
+
+    @Test
+    public void snapshotsAreDetectedAndEverythingElseIsCsv() throws IOException {
+        assertTrue(StudentSnapshot.isSnapshot(sample(false)));
+        assertTrue(StudentSnapshot.isSnapshot(sample(true)));
+        assertFalse(StudentSnapshot.isSnapshot(write("1,An,7\n".getBytes(StandardCharsets.UTF_8))));
+        assertFalse(StudentSnapshot.isSnapshot(write(new byte[0])));
+        assertFalse(StudentSnapshot.isSnapshot(write(new byte[] {0x53, 0x54, 0x53})));
+    }
+
+    @Test
+    public void loadingDetectsTheFormat() throws IOException {
+        String[] names = names();
+        double[] marks = marks();
+        Path csv = folder.newFile().toPath();
+        StudentSnapshot.writeCsv(csv, IDS, names, marks, IDS.length);
+        Path binary = folder.newFile().toPath();
+        StudentSnapshot.write(binary, IDS, names, marks, IDS.length, true);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < IDS.length; i++) {
+            expected.add(IDS[i] + "|" + names[i] + "|" + marks[i]);
+        }
+        assertEquals(expected, loadIntoRepository(binary));
+        // CSV has no way to write an empty ID, so that line is malformed
+        expected.remove("|" + names[5] + "|" + marks[5]);
+        assertEquals(expected, loadIntoRepository(csv));
+    }
+
+    @Test
+    public void blockReaderChecksumsEveryByteOnce() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int i = 0; i < 40_000; i++) {
+            out.writeByte(i);
+            out.writeInt(i * 31);
+            out.writeLong(i * 1_000_003L);
+            out.writeDouble(i / 7.0);
+            byte[] text = ("s" + "x".repeat(i % 50)).getBytes(StandardCharsets.UTF_8);
+            out.writeShort(text.length);
+            out.write(text);
+        }
+        byte[] data = bytes.toByteArray();
+
+        for (int step : new int[] {1, 7, 1 << 20}) {
+            StudentSnapshot.BlockReader in = new StudentSnapshot.BlockReader(new TrickleInputStream(data, step));
+            int consumed = 0;
+            for (int i = 0; i < 40_000; i++) {
+                assertEquals((byte) i, in.readByte());
+                assertEquals(i * 31, in.readInt());
+                assertEquals(i * 1_000_003L, in.readLong());
+                assertEquals(i / 7.0, in.readDouble(), 0);
+                assertEquals("s" + "x".repeat(i % 50), in.readString());
+                consumed += 1 + 4 + 8 + 8 + 2 + 1 + i % 50;
+                // Asking mid-stream must not count the checked bytes twice
+                if (i % 997 == 0) {
+                    assertEquals(crc(data, consumed), in.checksum());
+                }
+            }
+            assertEquals(crc(data, consumed), in.checksum());
+            assertEquals(in.checksum(), in.checksum());
+        }
+    }
+
+    @Test
+    public void blockReaderReportsTheEndOfInput() throws IOException {
+        StudentSnapshot.BlockReader in = new StudentSnapshot.BlockReader(new ByteArrayInputStream(new byte[] {0, 0, 0}));
+        try {
+            in.readInt();
+            fail("Only three bytes are available");
+        } catch (IOException expected) {
+        }
+    }
+
+    private void assertRoundTrip(boolean compress) throws IOException {
+        String[] names = names();
+        double[] marks = marks();
+        Path file = folder.newFile().toPath();
+        StudentSnapshot.write(file, IDS, names, marks, IDS.length, compress);
+
+        List<String[]> read = StudentSnapshot.read(file, StudentSnapshotTest::row);
+        assertEquals(IDS.length, read.size());
+        for (int i = 0; i < IDS.length; i++) {
+            assertEquals(IDS[i], read.get(i)[0]);
+            assertEquals(names[i], read.get(i)[1]);
+            assertEquals(Double.toString(marks[i]), read.get(i)[2]);
+        }
+    }
+
+    private List<String> loadIntoRepository(Path file) throws IOException {
+        StudentRepository repository = StudentRepositories.create("list");
+        StudentRepositories.load(repository, file, id -> true);
+        List<String> rows = new ArrayList<>();
+        repository.forEach(student -> rows.add(student.getId() + "|" + student.getName() + "|" + student.getMarks()));
+        return rows;
+    }
+
+    private Path sample(boolean compress) throws IOException {
+        Path file = folder.newFile().toPath();
+        StudentSnapshot.write(file, IDS, names(), marks(), IDS.length, compress);
+        return file;
+    }
+
+    private Path write(byte[] bytes) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, bytes);
+        return file;
+    }
+
+    private void assertRejected(String what, byte[] bytes) throws IOException {
+        Path file = write(bytes);
+        try {
+            StudentSnapshot.read(file, StudentSnapshotTest::row);
+            fail(what + " should not load");
+        } catch (IOException expected) {
+        }
+    }
+
+    private static String[] names() {
+        String[] names = new String[IDS.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = i % 2 == 0 ? "Nguyễn Văn " + i : "\"Tran\", " + i;
+        }
+        return names;
+    }
+
+    private static double[] marks() {
+        return new double[] {7.5, 0, -0.0, 10, 3.25, 1e-3, Double.MAX_VALUE, 8, 9.75};
+    }
+
+    private static String[] row(String id, String name, double marks) {
+        return new String[] {id, name, Double.toString(marks)};
+    }
+
+    private static int crc(byte[] data, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static final class TrickleInputStream extends InputStream {
+        private final byte[] bytes;
+        private final int step;
+        private int pos;
+
+        TrickleInputStream(byte[] bytes, int step) {
+            this.bytes = bytes;
+            this.step = step;
+        }
+
+        @Override
+        public int read() {
+            return pos < bytes.length ? bytes[pos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos == bytes.length) return -1;
+            int n = Math.min(Math.min(len, step), bytes.length - pos);
+            System.arraycopy(bytes, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+    }
+}